@@ -0,0 +1,56 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Runs all benchmarks matching a pattern once per requested thread count.
+ * JMH itself only accepts a single thread count per run, so every thread
+ * count gets its own run and its own JSON result file.
+ * <p>
+ * Arguments: {@code <result directory> <comma separated thread counts>
+ * <include pattern>}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() throws IllegalAccessException {
+        throw new IllegalAccessException(
+                "Cannot instantiate static helper class.");
+    }
+
+    public static void main(final String[] args)
+            throws IOException, RunnerException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException(
+                    "Usage: BenchmarkRunner <result directory> <threads> "
+                            + "<include>");
+        }
+
+        final var resultDir = Path.of(args[0]);
+        final var threadCounts = Arrays.stream(args[1].split(","))
+                .map(String::strip)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        final var include = args[2];
+
+        Files.createDirectories(resultDir);
+        for (final var threads : threadCounts) {
+            final var resultFile = resultDir.resolve(
+                    "results-t%d.json".formatted(threads));
+            final var options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultFile.toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package configuration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static configuration.ConfigBase.ConfigBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBenchmark {
+
+    @Param({"16", "1024", "8192"})
+    private int keyCount;
+
+    private ConfigurationKey[] keys;
+
+    private Config base;
+
+    private Config layered;
+
+    private CompiledConfig compiled;
+
+    private int[] slots;
+
+    private TypedConfigurationKey.OfInt[] typedKeys;
+
+    @Setup
+    public void setup() {
+        keys = new ConfigurationKey[keyCount];
+        typedKeys = new TypedConfigurationKey.OfInt[keyCount];
+        final var builder = ConfigBuilder.create();
+        final var properties = new Properties();
+        for (int i = 0; i < keyCount; ++i) {
+            keys[i] = ConfigurationKey.ofPieces("bench", "key" + i);
+            typedKeys[i] = new TypedConfigurationKey.OfInt(keys[i]);
+            builder.add(typedKeys[i], i);
+
+            // Override every other key, so lookups hit both layers.
+            if (i % 2 == 0) {
+                properties.setProperty("bench_key" + i, Integer.toString(-i));
+            }
+        }
+
+        base = builder.build();
+        layered = new ConfigFromProperties(base, properties);
+        compiled = CompiledConfig.compile(layered);
+        slots = new int[keyCount];
+        for (int i = 0; i < keyCount; ++i) {
+            slots[i] = compiled.slot(keys[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index = 0;
+
+        int next(final int bound) {
+            final var result = index;
+            index = (index + 1) % bound;
+            return result;
+        }
+    }
+
+    @Benchmark
+    public Integer baseGetValue(final Cursor cursor) {
+        return base.getValue(keys[cursor.next(keyCount)], Integer.class);
+    }
+
+    @Benchmark
+    public Object baseGetValueUntyped(final Cursor cursor) {
+        return base.getValue(keys[cursor.next(keyCount)]);
+    }
+
+    @Benchmark
+    public Integer layeredGetValue(final Cursor cursor) {
+        return layered.getValue(keys[cursor.next(keyCount)], Integer.class);
+    }
+
+    @Benchmark
+    public int layeredGetIntTyped(final Cursor cursor) {
+        return layered.getInt(typedKeys[cursor.next(keyCount)]);
+    }
+
+    @Benchmark
+    public int compiledGetInt(final Cursor cursor) {
+        return compiled.getInt(slots[cursor.next(keyCount)]);
+    }
+
+    @Benchmark
+    public ConfigurationKey createKey(final Cursor cursor) {
+        return ConfigurationKey.ofPieces("bench",
+                                         "key" + cursor.next(keyCount));
+    }
+
+    @Benchmark
+    public ConfigurationKey createKeyFromPath(final Cursor cursor) {
+        return ConfigurationKey.of("/bench/key" + cursor.next(keyCount));
+    }
+}
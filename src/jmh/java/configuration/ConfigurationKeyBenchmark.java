@@ -0,0 +1,115 @@
+package configuration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the single-pass key scanner of {@link ConfigurationKey} with the
+ * regular expressions it replaced. The split benchmarks validate the key and
+ * then split it into its pieces, which is what creating a key costs. Looking
+ * up a live key skips both, {@link #lookupCanonicalKey(Blackhole)} measures
+ * that case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationKeyBenchmark {
+
+    private final static Pattern piecePattern = Pattern.compile("[a-zA-Z0-9]+");
+    private final static Pattern keyPatter = Pattern.compile(
+            "(?:/[a-zA-Z0-9]+)+");
+
+    @Param({"1", "4", "16"})
+    private int depth;
+
+    private String key;
+
+    // Keeps the key alive, so lookups find the canonical instance.
+    private ConfigurationKey canonicalKey;
+
+    private List<String> pieces;
+
+    @Setup
+    public void setup() {
+        final var builder = new StringBuilder();
+        for (int i = 0; i < depth; ++i) {
+            builder.append("/tenant").append(i);
+        }
+        key = builder.toString();
+        pieces = List.of(key.substring(1).split("/"));
+        canonicalKey = ConfigurationKey.of(key);
+    }
+
+    @Benchmark
+    public boolean validateKeyRegex() {
+        return keyPatter.matcher(key).matches();
+    }
+
+    @Benchmark
+    public boolean validateKeyScanner() {
+        return ConfigurationKey.isValidKey(key);
+    }
+
+    @Benchmark
+    public boolean validatePiecesRegex() {
+        return !pieces.isEmpty() && pieces.stream()
+                .allMatch(piece -> piecePattern.matcher(piece).matches());
+    }
+
+    @Benchmark
+    public boolean validatePiecesScanner() {
+        for (final var piece : pieces) {
+            if (!ConfigurationKey.isValidPiece(piece)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Benchmark
+    public void validateAndSplitRegex(final Blackhole blackhole) {
+        if (!keyPatter.matcher(key).matches()) {
+            throw new IllegalArgumentException(key);
+        }
+
+        for (final var piece : key.substring(1).split("/")) {
+            blackhole.consume(piece);
+        }
+    }
+
+    @Benchmark
+    public void validateAndSplitScanner(final Blackhole blackhole) {
+        if (!ConfigurationKey.isValidKey(key)) {
+            throw new IllegalArgumentException(key);
+        }
+
+        for (final var piece : ConfigurationKey.split(key)) {
+            blackhole.consume(piece);
+        }
+    }
+
+    @Benchmark
+    public void lookupCanonicalKey(final Blackhole blackhole) {
+        for (final var piece : ConfigurationKey.of(key).pieces()) {
+            blackhole.consume(piece);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package deserilization;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializerBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private Deserializer deserializer;
+
+    private Deserializer.BoundDeserializer<Integer> integerDeserializer;
+
+    private String[] integers;
+
+    private String[] doubles;
+
+    private String[] booleans;
+
+    private String integerList;
+
+    private Deserializer.BoundDeserializer<int[]> intArrayDeserializer;
+
+    private Deserializer.BoundDeserializer<List<Integer>> integerListDeserializer;
+
+    @Setup
+    public void setup() {
+        final var random = new Random(42L);
+        deserializer = new Deserializer();
+        integerDeserializer = deserializer.forClass(Integer.class);
+        integers = new String[size];
+        doubles = new String[size];
+        booleans = new String[size];
+        for (int i = 0; i < size; ++i) {
+            integers[i] = Integer.toString(random.nextInt());
+            doubles[i] = Double.toString(random.nextDouble() * 1e6);
+            booleans[i] = Boolean.toString(random.nextBoolean());
+        }
+
+        integerList = Arrays.toString(integers);
+        intArrayDeserializer = deserializer.forType(TypeToken.of(int[].class));
+        integerListDeserializer = deserializer.forType(
+                new TypeToken<List<Integer>>() {});
+    }
+
+    @Benchmark
+    public void deserializeIntegers(final Blackhole blackhole) {
+        for (final var integer : integers) {
+            blackhole.consume(deserializer.deserialize(Integer.class, integer));
+        }
+    }
+
+    @Benchmark
+    public void deserializeIntegersBound(final Blackhole blackhole) {
+        for (final var integer : integers) {
+            blackhole.consume(integerDeserializer.deserialize(integer));
+        }
+    }
+
+    @Benchmark
+    public long deserializeIntegersPrimitive() {
+        long sum = 0L;
+        for (final var integer : integers) {
+            sum += deserializer.deserializeInt(integer);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void deserializeDoubles(final Blackhole blackhole) {
+        for (final var d : doubles) {
+            blackhole.consume(deserializer.deserialize(Double.class, d));
+        }
+    }
+
+    @Benchmark
+    public double deserializeDoublesPrimitive() {
+        double sum = 0.0;
+        for (final var d : doubles) {
+            sum += deserializer.deserializeDouble(d);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void deserializeBooleans(final Blackhole blackhole) {
+        for (final var b : booleans) {
+            blackhole.consume(deserializer.deserialize(Boolean.class, b));
+        }
+    }
+
+    @Benchmark
+    public int[] deserializeIntArraySplitThenMap() {
+        final var content = integerList.substring(1, integerList.length() - 1);
+        return Arrays.stream(content.split(","))
+                .map(String::trim)
+                .mapToInt(integer -> deserializer.deserialize(Integer.class,
+                                                              integer))
+                .toArray();
+    }
+
+    @Benchmark
+    public int[] deserializeIntArray() {
+        return intArrayDeserializer.deserialize(integerList);
+    }
+
+    @Benchmark
+    public List<Integer> deserializeIntegerList() {
+        return integerListDeserializer.deserialize(integerList);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Deserializer construct() {
+        return new Deserializer();
+    }
+}
@@ -0,0 +1,82 @@
+package deserilization;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingDeserializerBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private Deserializer deserializer;
+
+    private StreamingDeserializer streamingDeserializer;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        final var random = new Random(42L);
+        final var builder = new StringBuilder();
+        for (int i = 0; i < size; ++i) {
+            builder.append(random.nextInt()).append('\n');
+        }
+
+        input = builder.toString();
+        deserializer = new Deserializer();
+        streamingDeserializer = new StreamingDeserializer(deserializer);
+    }
+
+    @Benchmark
+    public long readLines() throws IOException {
+        long sum = 0L;
+        try (final var reader = new BufferedReader(new StringReader(input))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sum += deserializer.deserialize(Integer.class, line);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long streamInts() {
+        return streamingDeserializer.ints(new StringReader(input))
+                .asLongStream()
+                .sum();
+    }
+
+    @Benchmark
+    public long streamIntsParallel() {
+        return streamingDeserializer.ints(new StringReader(input))
+                .parallel()
+                .asLongStream()
+                .sum();
+    }
+
+    @Benchmark
+    public int[] streamIntsToArray() {
+        return streamingDeserializer.ints(new StringReader(input)).toArray();
+    }
+}
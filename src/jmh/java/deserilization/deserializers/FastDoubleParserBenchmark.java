@@ -0,0 +1,84 @@
+package deserilization.deserializers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastDoubleParserBenchmark {
+
+    @Param({"uniform", "scientific", "integral"})
+    private String distribution;
+
+    @Param({"10000"})
+    private int size;
+
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        final var random = new Random(42L);
+        values = new String[size];
+        for (int i = 0; i < size; ++i) {
+            values[i] = switch (distribution) {
+                case "uniform" -> Double.toString(random.nextDouble() * 1e6);
+                case "scientific" -> Double.toString(Double.longBitsToDouble(
+                        random.nextLong() & 0x7FEFFFFFFFFFFFFFL));
+                case "integral" -> Integer.toString(random.nextInt());
+                default -> throw new IllegalArgumentException(distribution);
+            };
+        }
+    }
+
+    @Benchmark
+    public double jdkParseDouble() {
+        var sum = 0.0;
+        for (final var value : values) {
+            sum += Double.parseDouble(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double fastParseDouble() {
+        var sum = 0.0;
+        for (final var value : values) {
+            sum += FastDoubleParser.parseDouble(value, 0, value.length());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float jdkParseFloat() {
+        var sum = 0.0f;
+        for (final var value : values) {
+            sum += Float.parseFloat(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float fastParseFloat() {
+        var sum = 0.0f;
+        for (final var value : values) {
+            sum += FastDoubleParser.parseFloat(value, 0, value.length());
+        }
+        return sum;
+    }
+}
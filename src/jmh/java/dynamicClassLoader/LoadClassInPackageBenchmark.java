@@ -0,0 +1,109 @@
+package dynamicClassLoader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Scans a generated package of {@code directories * classesPerDirectory}
+ * class files. Only the class names are found, the files are not valid
+ * classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadClassInPackageBenchmark {
+
+    private static final String PACKAGE = "generated.plugins";
+
+    @Param({"50"})
+    private int directories;
+
+    @Param({"100"})
+    private int classesPerDirectory;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private Path root;
+    private URLClassLoader classLoader;
+    private ClassLoader previousClassLoader;
+    private ForkJoinPool pool;
+    private LoadClassInPackage sequential;
+    private LoadClassInPackage parallel;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("LoadClassInPackageBenchmark");
+        final var packageDirectory = root.resolve(PACKAGE.replace('.', '/'));
+        for (int i = 0; i < directories; ++i) {
+            // Nest the directories two levels deep.
+            final var directory = packageDirectory.resolve("group" + i % 10)
+                    .resolve("sub" + i);
+            Files.createDirectories(directory);
+            for (int j = 0; j < classesPerDirectory; ++j) {
+                Files.write(directory.resolve("Plugin" + j + ".class"),
+                            new byte[]{(byte) 0xCA, (byte) 0xFE});
+            }
+        }
+
+        classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()},
+                                         null);
+        previousClassLoader = Thread.currentThread().getContextClassLoader();
+        pool = new ForkJoinPool(parallelism);
+        sequential = new LoadClassInPackage();
+        parallel = new LoadClassInPackage(pool);
+    }
+
+    @Setup(Level.Invocation)
+    public void setContextClassLoader() {
+        Thread.currentThread().setContextClassLoader(classLoader);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Thread.currentThread().setContextClassLoader(previousClassLoader);
+        pool.shutdown();
+        classLoader.close();
+        try (final Stream<Path> files = Files.walk(root)) {
+            for (final var file : files.sorted(Comparator.reverseOrder())
+                    .toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> sequentialScan() {
+        return sequential.findClassNames(PACKAGE).toList();
+    }
+
+    @Benchmark
+    public List<String> parallelScan() {
+        return parallel.findClassNames(PACKAGE).toList();
+    }
+}
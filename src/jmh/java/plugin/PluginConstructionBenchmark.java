@@ -0,0 +1,65 @@
+package plugin;
+
+import deserilization.deserializers.IntegerDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.LambdaConversionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the ways of constructing a plugin through a {@link Supplier}
+ * against a method reference to its constructor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginConstructionBenchmark {
+
+    private Supplier<?> direct;
+    private Supplier<?> reflective;
+    private Supplier<?> methodHandle;
+    private Supplier<?> lambda;
+
+    @Setup
+    public void setup()
+            throws ReflectiveOperationException, LambdaConversionException {
+        final var constructor = IntegerDeserializer.class.getConstructor();
+        direct = IntegerDeserializer::new;
+        reflective = PluginConstructors.reflective(constructor);
+        methodHandle = PluginConstructors.methodHandle(constructor);
+        lambda = PluginConstructors.lambda(constructor);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return direct.get();
+    }
+
+    @Benchmark
+    public Object reflective() {
+        return reflective.get();
+    }
+
+    @Benchmark
+    public Object methodHandle() {
+        return methodHandle.get();
+    }
+
+    @Benchmark
+    public Object lambdaMetafactory() {
+        return lambda.get();
+    }
+}
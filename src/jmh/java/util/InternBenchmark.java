@@ -0,0 +1,71 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Intern} is not thread-safe, so every benchmark thread gets its own
+ * instance. Running with more threads measures how the shared cleaner and
+ * the allocation rate scale.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InternBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    private int size;
+
+    private String[] elements;
+
+    private Intern<String> intern;
+
+    /*
+     * Keep the handles reachable, otherwise the cleaner removes the
+     * elements and every lookup becomes an insertion.
+     */
+    private List<Intern.InternHandle<String>> handles;
+
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        elements = new String[size];
+        intern = new Intern<>();
+        handles = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            elements[i] = "element" + i;
+            handles.add(intern.intern(elements[i]));
+        }
+    }
+
+    @Benchmark
+    public Intern.InternHandle<String> internExisting() {
+        final var element = elements[index];
+        index = (index + 1) % size;
+        return intern.intern(element);
+    }
+
+    @Benchmark
+    public Intern.InternHandle<String> internFresh() {
+        final var element = elements[index];
+        index = (index + 1) % size;
+        return intern.intern(new String(element));
+    }
+}
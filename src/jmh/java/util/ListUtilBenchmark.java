@@ -0,0 +1,67 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel streams run in the fork-join pool of the submitting task, so
+ * submitting the mapping to a dedicated pool controls how many worker
+ * threads {@link ListUtil#parallelMapUnmodifiable} uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListUtilBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private List<Integer> list;
+
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        list = IntStream.range(0, size).boxed().toList();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Long> parallelMapUnmodifiable() {
+        return pool.submit(() -> ListUtil.parallelMapUnmodifiable(
+                list, i -> (long) i * i)).join();
+    }
+
+    @Benchmark
+    public List<Long> streamMapToList() {
+        return pool.submit(() -> list.parallelStream()
+                .map(i -> (long) i * i)
+                .toList()).join();
+    }
+}
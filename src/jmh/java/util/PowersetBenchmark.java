@@ -0,0 +1,57 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PowersetBenchmark {
+
+    @Param({"4", "8", "12", "16"})
+    private int size;
+
+    private Powerset<Integer> powerset;
+
+    @Setup
+    public void setup() {
+        final Set<Integer> set = IntStream.range(0, size)
+                .boxed()
+                .collect(Collectors.toSet());
+        powerset = new Powerset<>(set);
+    }
+
+    @Benchmark
+    public void iterateSubsets(final Blackhole blackhole) {
+        for (final var subset : powerset) {
+            blackhole.consume(subset);
+        }
+    }
+
+    @Benchmark
+    public void iterateSubsetElements(final Blackhole blackhole) {
+        for (final var subset : powerset) {
+            for (final var element : subset) {
+                blackhole.consume(element);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A generator is stateful, so every benchmark thread owns one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomPermutationGeneratorBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private long size;
+
+    private RandomPermutationGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = new RandomPermutationGenerator(size, 0L);
+    }
+
+    @Benchmark
+    public long fullPermutation() {
+        generator.reset();
+        long sum = 0L;
+        while (generator.hasNext()) {
+            sum += generator.nextLong();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,44 @@
+package configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Looks up the serialized values of many keys at once. Sources for which a
+ * single lookup is expensive (e.g. because it is a round trip to another
+ * service) can answer all keys in one go.
+ */
+@FunctionalInterface
+public interface BulkLookup {
+
+    /**
+     * Adapts a lookup of single keys.
+     *
+     * @param lookup Looks up the value of a single key.
+     * @return A bulk lookup that calls the given lookup once per key.
+     */
+    static BulkLookup of(
+            final Function<ConfigurationKey, Optional<String>> lookup) {
+        requireNonNull(lookup);
+        return keys -> {
+            final var result = new HashMap<ConfigurationKey, String>();
+            keys.forEach(key -> lookup.apply(key)
+                    .ifPresent(value -> result.put(key, value)));
+            return result;
+        };
+    }
+
+    /**
+     * Looks up the values of the given keys.
+     *
+     * @param keys The keys to look up.
+     * @return The values of all keys that have a value. Keys without a value
+     * are missing from the map.
+     */
+    Map<ConfigurationKey, String> lookupAll(Set<ConfigurationKey> keys);
+}
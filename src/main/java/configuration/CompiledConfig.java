@@ -0,0 +1,230 @@
+package configuration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, flattened snapshot of a {@link Config}. Compiling a config
+ * resolves every key through all layers once, and assigns it a slot index.
+ * Looking up the slot of a key once and then reading through the slot
+ * avoids the map lookup and the {@code Class} check on every read, and the
+ * typed accessors ({@link #getInt(int)}, {@link #getLong(int)}, ...) return
+ * primitives that have been unboxed at compile time.
+ * <p>
+ * The snapshot does not follow changes in the compiled config.
+ */
+public final class CompiledConfig implements Config {
+
+    private final Map<ConfigurationKey, Integer> slots;
+    private final ConfigurationKey[] keys;
+    private final Class<?>[] classes;
+    private final Object[] values;
+    private final long[] primitives;
+    private final PrimitiveKind[] kinds;
+    private final KeyTrie index;
+
+    private CompiledConfig(final ConfigurationKey[] keys,
+            final Class<?>[] classes, final Object[] values) {
+        final var size = keys.length;
+        this.keys = keys;
+        this.classes = classes;
+        this.values = values;
+        this.primitives = new long[size];
+        this.kinds = new PrimitiveKind[size];
+        this.slots = new HashMap<>(size * 4 / 3 + 1);
+
+        for (int slot = 0; slot < size; ++slot) {
+            slots.put(keys[slot], slot);
+            kinds[slot] = PrimitiveKind.of(classes[slot]);
+            primitives[slot] = kinds[slot].toBits(values[slot]);
+        }
+
+        this.index = new KeyTrie(slots.keySet());
+    }
+
+    /**
+     * Flattens the given config into a snapshot. Compiling an already
+     * compiled config returns it unchanged.
+     *
+     * @param config The config to compile.
+     * @throws NullPointerException If the config is {@code null}.
+     * @return A snapshot of the current values of the config.
+     */
+    public static CompiledConfig compile(final Config config) {
+        requireNonNull(config);
+        if (config instanceof CompiledConfig compiled) {
+            return compiled;
+        }
+
+        final var keys = config.getKeys()
+                .stream()
+                .sorted(Comparator.comparing(ConfigurationKey::toString))
+                .toArray(ConfigurationKey[]::new);
+        final var classes = new Class<?>[keys.length];
+        final var values = new Object[keys.length];
+        for (int slot = 0; slot < keys.length; ++slot) {
+            classes[slot] = config.getClazz(keys[slot]);
+            values[slot] = config.getValue(keys[slot]);
+        }
+
+        return new CompiledConfig(keys, classes, values);
+    }
+
+    /**
+     * Resolves a key to its slot. Slots are stable for the lifetime of this
+     * snapshot, so callers should resolve them once and keep them around.
+     *
+     * @param key The key to resolve.
+     * @throws NoSuchElementException If the key is not part of the config.
+     * @return The slot of the key.
+     */
+    public int slot(final ConfigurationKey key) {
+        final var slot = slots.get(requireNonNull(key));
+        if (slot == null) {
+            throw new NoSuchElementException(
+                    "The configuration does not contain the key '%s'.".formatted(
+                            key));
+        }
+
+        return slot;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public ConfigurationKey keyAt(final int slot) {
+        return keys[slot];
+    }
+
+    public Object getValue(final int slot) {
+        return values[slot];
+    }
+
+    public <T> T getValue(final int slot, final Class<T> clazz) {
+        requireNonNull(clazz);
+        if (!clazz.isAssignableFrom(classes[slot])) {
+            throw new IllegalArgumentException(
+                    ("Cannot assign an object of type '%s' to an object of "
+                            + "type '%s'").formatted(classes[slot], clazz));
+        }
+
+        /*
+         * Safety: We know this cast is safe because of the if-condition
+         * check above.
+         */
+        return (T) values[slot];
+    }
+
+    public int getInt(final int slot) {
+        checkKind(slot, PrimitiveKind.INT);
+        return (int) primitives[slot];
+    }
+
+    public long getLong(final int slot) {
+        checkKind(slot, PrimitiveKind.LONG);
+        return primitives[slot];
+    }
+
+    public short getShort(final int slot) {
+        checkKind(slot, PrimitiveKind.SHORT);
+        return (short) primitives[slot];
+    }
+
+    public byte getByte(final int slot) {
+        checkKind(slot, PrimitiveKind.BYTE);
+        return (byte) primitives[slot];
+    }
+
+    public char getChar(final int slot) {
+        checkKind(slot, PrimitiveKind.CHAR);
+        return (char) primitives[slot];
+    }
+
+    public boolean getBoolean(final int slot) {
+        checkKind(slot, PrimitiveKind.BOOLEAN);
+        return primitives[slot] != 0L;
+    }
+
+    public float getFloat(final int slot) {
+        checkKind(slot, PrimitiveKind.FLOAT);
+        return Float.intBitsToFloat((int) primitives[slot]);
+    }
+
+    public double getDouble(final int slot) {
+        checkKind(slot, PrimitiveKind.DOUBLE);
+        return Double.longBitsToDouble(primitives[slot]);
+    }
+
+    private void checkKind(final int slot, final PrimitiveKind expected) {
+        if (kinds[slot] != expected) {
+            throw new IllegalArgumentException(
+                    "The key '%s' holds a value of type '%s', not '%s'."
+                            .formatted(keys[slot], classes[slot],
+                                       expected.boxed()));
+        }
+    }
+
+    @Override
+    public boolean containsKey(final ConfigurationKey key) {
+        return slots.containsKey(requireNonNull(key));
+    }
+
+    @Override
+    public <T> T getValue(final ConfigurationKey key, final Class<T> clazz) {
+        return getValue(slot(key), clazz);
+    }
+
+    @Override
+    public Object getValue(final ConfigurationKey key) {
+        return values[slot(key)];
+    }
+
+    @Override
+    public Class<?> getClazz(final ConfigurationKey key) {
+        return classes[slot(key)];
+    }
+
+    @Override
+    public Set<ConfigurationKey> getKeys() {
+        return Collections.unmodifiableSet(slots.keySet());
+    }
+
+    @Override
+    public Set<ConfigurationKey> getKeysUnder(final ConfigurationKey prefix) {
+        return index.keysUnder(prefix);
+    }
+
+    @Override
+    public int getInt(final TypedConfigurationKey.OfInt key) {
+        return getInt(slot(key.key()));
+    }
+
+    @Override
+    public long getLong(final TypedConfigurationKey.OfLong key) {
+        return getLong(slot(key.key()));
+    }
+
+    @Override
+    public double getDouble(final TypedConfigurationKey.OfDouble key) {
+        return getDouble(slot(key.key()));
+    }
+
+    @Override
+    public boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        return getBoolean(slot(key.key()));
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledConfig{keys=%s, values=%s}".formatted(
+                Arrays.toString(keys), Arrays.toString(values));
+    }
+}
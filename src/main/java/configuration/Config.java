@@ -1,6 +1,7 @@
 package configuration;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface Config {
     boolean containsKey(ConfigurationKey key);
@@ -13,6 +14,69 @@ public interface Config {
 
     Set<ConfigurationKey> getKeys();
 
+    /**
+     * Returns all keys equal to or below the given prefix. For example
+     * {@code /db/pool} is a prefix of {@code /db/pool} and
+     * {@code /db/pool/size}, but not of {@code /db/poolsize}.
+     * <p>
+     * The default implementation scans all keys.
+     *
+     * @param prefix The prefix of the keys to return.
+     * @return An unmodifiable set of all keys below the prefix.
+     */
+    default Set<ConfigurationKey> getKeysUnder(final ConfigurationKey prefix) {
+        final var path = prefix.toString();
+        final var pathWithSeparator = path + '/';
+        return getKeys().stream().filter(key -> {
+            final var other = key.toString();
+            return other.equals(path) || other.startsWith(pathWithSeparator);
+        }).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Returns a view of this config, that only contains the keys equal to or
+     * below the given prefix.
+     *
+     * @param prefix The prefix of the keys in the view.
+     * @return A view of the subtree below the prefix.
+     */
+    default Config subtree(final ConfigurationKey prefix) {
+        return new SubtreeConfig(this, prefix, getKeysUnder(prefix));
+    }
+
+    default Config subtree(final String prefix) {
+        return subtree(ConfigurationKey.of(prefix));
+    }
+
+    /**
+     * Returns the config that provides the value of the given key, e.g. the
+     * {@link ConfigBase} if the key has its default value, or a
+     * {@link ConfigFromProperties} if the value was overridden by a
+     * properties file.
+     *
+     * @param key The key to look up.
+     * @return The config that provides the value of the key.
+     */
+    default Config sourceOf(final ConfigurationKey key) {
+        return this;
+    }
+
+    default int getInt(final TypedConfigurationKey.OfInt key) {
+        return getValue(key.key(), Integer.class);
+    }
+
+    default long getLong(final TypedConfigurationKey.OfLong key) {
+        return getValue(key.key(), Long.class);
+    }
+
+    default double getDouble(final TypedConfigurationKey.OfDouble key) {
+        return getValue(key.key(), Double.class);
+    }
+
+    default boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        return getValue(key.key(), Boolean.class);
+    }
+
     @Override
     String toString();
 }
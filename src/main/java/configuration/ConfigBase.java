@@ -9,9 +9,11 @@ import static java.util.Objects.requireNonNull;
 public final class ConfigBase implements Config {
 
     private final Map<ConfigurationKey, ClassAndValue<?>> configs;
+    private final KeyTrie index;
 
     private ConfigBase(final Map<ConfigurationKey, ClassAndValue<?>> configs) {
         this.configs = requireNonNull(configs);
+        this.index = new KeyTrie(configs.keySet());
     }
 
     @Override
@@ -76,15 +78,70 @@ public final class ConfigBase implements Config {
         return Collections.unmodifiableSet(configs.keySet());
     }
 
+    @Override
+    public Set<ConfigurationKey> getKeysUnder(final ConfigurationKey prefix) {
+        return index.keysUnder(prefix);
+    }
+
+    @Override
+    public int getInt(final TypedConfigurationKey.OfInt key) {
+        return (int) getBits(key);
+    }
+
+    @Override
+    public long getLong(final TypedConfigurationKey.OfLong key) {
+        return getBits(key);
+    }
+
+    @Override
+    public double getDouble(final TypedConfigurationKey.OfDouble key) {
+        return Double.longBitsToDouble(getBits(key));
+    }
+
+    @Override
+    public boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        return getBits(key) != 0L;
+    }
+
+    private long getBits(final TypedConfigurationKey key) {
+        final var record = configs.get(key.key());
+        if (record == null) {
+            throw new NoSuchElementException(
+                    "The configuration does not contain the key '%s'.".formatted(
+                            key.key()));
+        } else {
+            return record.bits(key);
+        }
+    }
+
     @Override
     public String toString() {
         return "ConfigBase{configs=%s}".formatted(configs);
     }
 
-    record ClassAndValue<T>(Class<T> clazz, T value) {
+    /**
+     * The value of a configuration key. Values of boxed primitive types are
+     * additionally stored as raw bits, so typed keys can read them without
+     * unboxing.
+     */
+    record ClassAndValue<T>(Class<T> clazz, T value, long bits) {
         public ClassAndValue(final Class<T> clazz, final T value) {
-            this.clazz = requireNonNull(clazz);
-            this.value = requireNonNull(value);
+            this(requireNonNull(clazz), requireNonNull(value),
+                 PrimitiveKind.of(clazz).toBits(value));
+        }
+
+        long bits(final TypedConfigurationKey key) {
+            /*
+             * Typed keys only exist for the boxed primitive classes, which
+             * are final, so an identity check is enough here.
+             */
+            if (clazz != key.clazz()) {
+                throw new IllegalArgumentException(
+                        ("Cannot assign an object of type '%s' to an object of "
+                                + "type '%s'").formatted(clazz, key.clazz()));
+            }
+
+            return bits;
         }
     }
 
@@ -114,6 +171,26 @@ public final class ConfigBase implements Config {
             return this;
         }
 
+        public ConfigBuilder add(final TypedConfigurationKey.OfInt key,
+                final int defaultValue) {
+            return add(key.key(), Integer.class, defaultValue);
+        }
+
+        public ConfigBuilder add(final TypedConfigurationKey.OfLong key,
+                final long defaultValue) {
+            return add(key.key(), Long.class, defaultValue);
+        }
+
+        public ConfigBuilder add(final TypedConfigurationKey.OfDouble key,
+                final double defaultValue) {
+            return add(key.key(), Double.class, defaultValue);
+        }
+
+        public ConfigBuilder add(final TypedConfigurationKey.OfBoolean key,
+                final boolean defaultValue) {
+            return add(key.key(), Boolean.class, defaultValue);
+        }
+
         public Config build() {
             return state.build();
         }
@@ -1,21 +1,69 @@
 package configuration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 public final class ConfigFromEnv extends ConfigFromStrings {
 
     public ConfigFromEnv(final Config basedOn) {
-        super(basedOn, key -> lookupEnv(key, System.getenv()));
+        super(basedOn, (Set<ConfigurationKey> keys) -> lookupAllEnv(
+                keys, System.getenv()));
+    }
+
+    public ConfigFromEnv(final Config basedOn, final Loading loading) {
+        super(basedOn, (Set<ConfigurationKey> keys) -> lookupAllEnv(
+                keys, System.getenv()), loading);
+    }
+
+    public ConfigFromEnv(final Config basedOn, final Executor executor) {
+        super(basedOn, key -> lookupEnv(key, System.getenv()), executor);
+    }
+
+    private static String toEnvVariable(final ConfigurationKey key) {
+        return key.toString().substring(1).replace('/', '_').toUpperCase();
     }
 
     private static Optional<String> lookupEnv(final ConfigurationKey key,
             final Map<String, String> env) {
-        final String envVariable = key.toString()
-                .substring(1)
-                .replace('/', '_')
-                .toUpperCase();
-        return Optional.ofNullable(env.get(envVariable));
+        return Optional.ofNullable(env.get(toEnvVariable(key)));
+    }
+
+    // Looks up each key, unless there are more keys than variables.
+    static Map<ConfigurationKey, String> lookupAllEnv(
+            final Set<ConfigurationKey> keys, final Map<String, String> env) {
+        final var result = new HashMap<ConfigurationKey, String>();
+        if (keys.size() <= env.size()) {
+            for (final var key : keys) {
+                final var value = env.get(toEnvVariable(key));
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+
+            return result;
+        }
+
+        /*
+         * Different keys can map to the same variable, e.g. '/a/b' and
+         * '/A/B', so each variable maps to a list of keys.
+         */
+        final var byVariable = new HashMap<String, List<ConfigurationKey>>();
+        keys.forEach(key -> byVariable.computeIfAbsent(
+                toEnvVariable(key), variable -> new ArrayList<>(1)).add(key));
+
+        env.forEach((variable, value) -> {
+            final var matching = byVariable.get(variable);
+            if (matching != null) {
+                matching.forEach(key -> result.put(key, value));
+            }
+        });
+
+        return result;
     }
 
     @Override
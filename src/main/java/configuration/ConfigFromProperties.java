@@ -1,20 +1,75 @@
 package configuration;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 public final class ConfigFromProperties extends ConfigFromStrings {
 
     public ConfigFromProperties(final Config basedOn,
             final Properties properties) {
-        super(basedOn, key -> lookupEnv(key, properties));
+        super(basedOn,
+              (Set<ConfigurationKey> keys) -> lookupAll(keys, properties));
+    }
+
+    public ConfigFromProperties(final Config basedOn,
+            final Properties properties, final Loading loading) {
+        super(basedOn,
+              (Set<ConfigurationKey> keys) -> lookupAll(keys, properties),
+              loading);
+    }
+
+    public ConfigFromProperties(final Config basedOn,
+            final Properties properties, final Executor executor) {
+        super(basedOn, key -> lookupEnv(key, properties), executor);
+    }
+
+    private static String toPropertyKey(final ConfigurationKey key) {
+        return key.toString().substring(1).replace('/', '_');
     }
 
     private static Optional<String> lookupEnv(final ConfigurationKey key,
             final Properties properties) {
-        final var propertyKey = key.toString().substring(1).replace('/', '_');
+        return Optional.ofNullable(properties.getProperty(toPropertyKey(key)));
+    }
+
+    /*
+     * Looks up each key, unless there are more keys than properties. Then
+     * the properties are iterated instead, which also copies the defaults.
+     */
+    static Map<ConfigurationKey, String> lookupAll(
+            final Set<ConfigurationKey> keys, final Properties properties) {
+        final var result = new HashMap<ConfigurationKey, String>();
+        if (keys.size() <= properties.size()) {
+            for (final var key : keys) {
+                final var value = properties.getProperty(toPropertyKey(key));
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+
+            return result;
+        }
+
+        /*
+         * Property keys keep the case of the configuration key, so every
+         * property key belongs to at most one configuration key.
+         */
+        final var byPropertyKey = new HashMap<String, ConfigurationKey>(
+                keys.size() * 4 / 3 + 1);
+        keys.forEach(key -> byPropertyKey.put(toPropertyKey(key), key));
+
+        for (final var propertyKey : properties.stringPropertyNames()) {
+            final var key = byPropertyKey.get(propertyKey);
+            if (key != null) {
+                result.put(key, properties.getProperty(propertyKey));
+            }
+        }
 
-        return Optional.ofNullable(properties.getProperty(propertyKey));
+        return result;
     }
 
     @Override
@@ -2,11 +2,18 @@ package configuration;
 
 
 import deserilization.Deserializer;
+import util.LazyInitialize;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
@@ -15,32 +22,149 @@ public class ConfigFromStrings implements Config {
     private final Config baseConfig;
     private final Map<ConfigurationKey, ConfigBase.ClassAndValue<?>> configs;
 
+    // Only used in lazy mode, otherwise empty.
+    private final Map<ConfigurationKey,
+            LazyInitialize<ConfigBase.ClassAndValue<?>>> lazyConfigs;
+
     public ConfigFromStrings(final Config baseConfig,
             final Function<ConfigurationKey, Optional<String>> lookup) {
+        this(baseConfig, BulkLookup.of(lookup));
+    }
+
+    /*
+     * Protected, because a public overload would make every implicitly typed
+     * lambda passed to the constructor above ambiguous. Use
+     * 'fromBulkLookup()' instead.
+     */
+    protected ConfigFromStrings(final Config baseConfig,
+            final BulkLookup lookup) {
+        this(baseConfig, lookup, Loading.EAGER);
+    }
+
+    protected ConfigFromStrings(final Config baseConfig,
+            final BulkLookup lookup, final Loading loading) {
         this.baseConfig = requireNonNull(baseConfig);
-        configs = init(baseConfig, requireNonNull(lookup));
+        requireNonNull(lookup);
+        if (requireNonNull(loading) == Loading.EAGER) {
+            configs = init(baseConfig, lookup);
+            lazyConfigs = Map.of();
+        } else {
+            configs = Map.of();
+            lazyConfigs = initLazy(baseConfig, lookup);
+        }
+    }
+
+    /**
+     * Creates a config that looks up the values of all keys with a single
+     * call, instead of one call per key.
+     *
+     * @param baseConfig The config that defines the keys and their types.
+     * @param lookup Looks up the serialized values of all keys at once.
+     * @return A config with the values returned by the lookup.
+     */
+    public static ConfigFromStrings fromBulkLookup(final Config baseConfig,
+            final BulkLookup lookup) {
+        return new ConfigFromStrings(baseConfig, lookup);
+    }
+
+    public static ConfigFromStrings fromBulkLookup(final Config baseConfig,
+            final BulkLookup lookup, final Loading loading) {
+        return new ConfigFromStrings(baseConfig, lookup, loading);
+    }
+
+    /**
+     * Looks up and deserializes all keys in parallel on the given executor.
+     * This pays off if the lookup is slow, e.g. because it asks a remote
+     * service. Any executor works, including one that starts a virtual
+     * thread per task.
+     * <p>
+     * Unlike the sequential constructor this does not stop at the first
+     * key that fails, but reports the failures of all keys at once.
+     *
+     * @param baseConfig The config that defines the keys and their types.
+     * @param lookup Looks up the serialized value of a key. Has to be
+     *               thread-safe.
+     * @param executor The executor to run the lookups on.
+     * @throws ConfigLoadException If any key could not be loaded.
+     */
+    public ConfigFromStrings(final Config baseConfig,
+            final Function<ConfigurationKey, Optional<String>> lookup,
+            final Executor executor) {
+        this.baseConfig = requireNonNull(baseConfig);
+        configs = initParallel(baseConfig, requireNonNull(lookup),
+                               requireNonNull(executor));
+        lazyConfigs = Map.of();
     }
 
     private static Map<ConfigurationKey, ConfigBase.ClassAndValue<?>> init(
-            final Config base,
-            final Function<ConfigurationKey, Optional<String>> lookup) {
+            final Config base, final BulkLookup lookup) {
         final var configs
                 = new HashMap<ConfigurationKey, ConfigBase.ClassAndValue<?>>();
         final var deserializer = new Deserializer();
 
-        base.getKeys().forEach(key -> {
-            final var value = lookup.apply(key);
-            if (value.isPresent()) {
-                final var clazz = base.getClazz(key);
-                final var record = deserialize(
-                        clazz, value.get(), deserializer);
-                configs.put(key, record);
-            }
+        lookup.lookupAll(base.getKeys()).forEach((key, value) -> {
+            final var clazz = base.getClazz(key);
+            final var record = deserialize(clazz, value, deserializer);
+            configs.put(key, record);
         });
 
         return configs;
     }
 
+    private static Map<ConfigurationKey,
+            LazyInitialize<ConfigBase.ClassAndValue<?>>> initLazy(
+            final Config base, final BulkLookup lookup) {
+        final var lazyConfigs = new HashMap<ConfigurationKey,
+                LazyInitialize<ConfigBase.ClassAndValue<?>>>();
+        final var deserializer = new Deserializer();
+
+        lookup.lookupAll(base.getKeys()).forEach((key, value) -> {
+            final var clazz = base.getClazz(key);
+            lazyConfigs.put(key, new LazyInitialize<>(
+                    () -> deserialize(clazz, value, deserializer)));
+        });
+
+        return lazyConfigs;
+    }
+
+    private static Map<ConfigurationKey, ConfigBase.ClassAndValue<?>>
+    initParallel(final Config base,
+            final Function<ConfigurationKey, Optional<String>> lookup,
+            final Executor executor) {
+        final var deserializer = new Deserializer();
+        final var keys = List.copyOf(base.getKeys());
+        final var futures
+                = new ArrayList<CompletableFuture<ConfigBase.ClassAndValue<?>>>(
+                keys.size());
+        for (final var key : keys) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> lookup.apply(key)
+                            .map(value -> deserialize(
+                                    base.getClazz(key), value, deserializer))
+                            .orElse(null), executor));
+        }
+
+        final var configs
+                = new HashMap<ConfigurationKey, ConfigBase.ClassAndValue<?>>();
+        final var failures = new LinkedHashMap<ConfigurationKey, Throwable>();
+        for (int i = 0; i < keys.size(); ++i) {
+            try {
+                final var record = futures.get(i).join();
+                if (record != null) {
+                    configs.put(keys.get(i), record);
+                }
+            } catch (final CompletionException e) {
+                failures.put(keys.get(i), e.getCause());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new ConfigLoadException(failures);
+        }
+
+        return configs;
+    }
+
     private static <T> ConfigBase.ClassAndValue<T> deserialize(
             final Class<T> clazz, final String serialized,
             final Deserializer deserializer) {
@@ -48,14 +172,25 @@ public class ConfigFromStrings implements Config {
         return new ConfigBase.ClassAndValue<>(clazz, deserialized);
     }
 
+    private ConfigBase.ClassAndValue<?> record(final ConfigurationKey key) {
+        final var record = configs.get(key);
+        if (record != null) {
+            return record;
+        }
+
+        final var lazy = lazyConfigs.get(key);
+        return lazy != null ? lazy.get() : null;
+    }
+
     @Override
     public final boolean containsKey(final ConfigurationKey key) {
-        return configs.containsKey(key) || baseConfig.containsKey(key);
+        return configs.containsKey(key) || lazyConfigs.containsKey(key)
+                || baseConfig.containsKey(key);
     }
 
     @Override
     public final <T> T getValue(ConfigurationKey key, Class<T> clazz) {
-        final var record = configs.get(key);
+        final var record = record(key);
         if (record != null) {
             if (clazz.isAssignableFrom(record.clazz())) {
                 /*
@@ -76,21 +211,59 @@ public class ConfigFromStrings implements Config {
 
     @Override
     public final Object getValue(ConfigurationKey key) {
-        final var record = configs.get(key);
+        final var record = record(key);
         return record != null ? record.value() : baseConfig.getValue(key);
     }
 
     @Override
     public final Class<?> getClazz(final ConfigurationKey key) {
-        final var record = configs.get(key);
+        final var record = record(key);
         return record != null ? record.clazz() : baseConfig.getClazz(key);
     }
 
+    @Override
+    public final Config sourceOf(final ConfigurationKey key) {
+        return configs.containsKey(key) || lazyConfigs.containsKey(key)
+               ? this : baseConfig.sourceOf(key);
+    }
+
     @Override
     public final Set<ConfigurationKey> getKeys() {
         return baseConfig.getKeys();
     }
 
+    @Override
+    public final Set<ConfigurationKey> getKeysUnder(
+            final ConfigurationKey prefix) {
+        return baseConfig.getKeysUnder(prefix);
+    }
+
+    @Override
+    public final int getInt(final TypedConfigurationKey.OfInt key) {
+        final var record = record(key.key());
+        return record != null ? (int) record.bits(key) : baseConfig.getInt(key);
+    }
+
+    @Override
+    public final long getLong(final TypedConfigurationKey.OfLong key) {
+        final var record = record(key.key());
+        return record != null ? record.bits(key) : baseConfig.getLong(key);
+    }
+
+    @Override
+    public final double getDouble(final TypedConfigurationKey.OfDouble key) {
+        final var record = record(key.key());
+        return record != null ? Double.longBitsToDouble(record.bits(key))
+                              : baseConfig.getDouble(key);
+    }
+
+    @Override
+    public final boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        final var record = record(key.key());
+        return record != null ? record.bits(key) != 0L
+                              : baseConfig.getBoolean(key);
+    }
+
     @Override
     public final boolean equals(final Object obj) {
         return super.equals(obj);
@@ -108,7 +281,27 @@ public class ConfigFromStrings implements Config {
 
     @Override
     public String toString() {
-        return "ConfigFromStrings{baseConfig=%s, configs=%s}".formatted(
-                baseConfig, configs);
+        return ("ConfigFromStrings{baseConfig=%s, configs=%s, "
+                + "lazyConfigs=%s}").formatted(
+                baseConfig, configs, lazyConfigs.keySet());
+    }
+
+    /**
+     * When the values of a {@link ConfigFromStrings} are deserialized.
+     */
+    public enum Loading {
+        /**
+         * All values are deserialized when the config is constructed.
+         */
+        EAGER,
+
+        /**
+         * The serialized values are looked up when the config is
+         * constructed, but each value is only deserialized the first time
+         * it is read. Concurrent first reads of a key deserialize it only
+         * once. A value that cannot be deserialized throws when it is read,
+         * not when the config is constructed.
+         */
+        LAZY
     }
 }
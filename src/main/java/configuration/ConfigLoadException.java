@@ -0,0 +1,30 @@
+package configuration;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thrown if one or more keys of a config could not be loaded. Holds the
+ * failure of every key, not just the first one. The failures are also
+ * attached as suppressed exceptions.
+ */
+public final class ConfigLoadException extends RuntimeException {
+
+    private final Map<ConfigurationKey, Throwable> failures;
+
+    public ConfigLoadException(
+            final Map<ConfigurationKey, ? extends Throwable> failures) {
+        super("Could not load the keys %s.".formatted(
+                requireNonNull(failures).keySet()));
+        this.failures = Collections.unmodifiableMap(
+                new LinkedHashMap<>(failures));
+        this.failures.values().forEach(this::addSuppressed);
+    }
+
+    public Map<ConfigurationKey, Throwable> getFailures() {
+        return failures;
+    }
+}
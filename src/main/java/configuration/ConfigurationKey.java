@@ -1,65 +1,297 @@
 package configuration;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Objects.requireNonNull;
 
 
+/**
+ * The path of a configuration value, e.g. {@code /db/pool/size}.
+ * <p>
+ * Keys are canonical: as long as a key is reachable, every factory call for
+ * the same path returns that very instance. A path is only validated and
+ * split into its pieces when its key is created, a lookup of a live key
+ * neither validates nor allocates. The canonical keys are held weakly, so
+ * keys built from e.g. request data do not pile up.
+ * <p>
+ * The deprecated constructors cannot return the canonical instance, so they
+ * create a new key that refers to it. Two keys are equal if they share the
+ * canonical key, which is a single reference comparison either way, but only
+ * keys from the factories may be compared by identity.
+ */
 public final class ConfigurationKey {
-    private final static Pattern piecePattern = Pattern.compile("[a-zA-Z0-9]+");
-    private final static Pattern keyPatter = Pattern.compile(
-            "(?:/[a-zA-Z0-9]+)+");
+    private static final String INVALID_KEY
+            = "Invalid key. Has to consist of one or more pieces, each piece "
+            + "consisting of lowercase characters and digits";
+
+    private static final ConcurrentHashMap<String, KeyReference> canonical
+            = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<ConfigurationKey> collected
+            = new ReferenceQueue<>();
+
     private final String key;
+    private final int hash;
+    private final Pieces pieces;
+    private final ConfigurationKey canonicalKey;
+
+    private ConfigurationKey(final String key, final Pieces pieces) {
+        this.key = key;
+        this.hash = key.hashCode();
+        this.pieces = pieces;
+        this.canonicalKey = this;
+    }
 
+    private ConfigurationKey(final ConfigurationKey canonical) {
+        this.key = canonical.key;
+        this.hash = canonical.hash;
+        this.pieces = canonical.pieces;
+        this.canonicalKey = canonical;
+    }
+
+    /**
+     * @deprecated Use {@link #ofPieces(List)}, which returns the canonical
+     * key.
+     */
+    @Deprecated
     public ConfigurationKey(final List<String> pieces) {
+        this(ofPieces(pieces));
+    }
+
+    /**
+     * @deprecated Use {@link #ofPieces(String...)}, which returns the
+     * canonical key.
+     */
+    @Deprecated
+    public ConfigurationKey(final String... pieces) {
+        this(ofPieces(pieces));
+    }
+
+    /**
+     * @deprecated Use {@link #of(String)}, which returns the canonical key.
+     */
+    @Deprecated
+    public ConfigurationKey(final String key) {
+        this(of(key));
+    }
+
+    /**
+     * Returns the key of a path. Validation only runs if no key with the
+     * same path is currently alive.
+     *
+     * @param key The path of the key, e.g. {@code /a/b/c}.
+     * @throws IllegalArgumentException If the path is not a valid key.
+     * @return The canonical key for the path.
+     */
+    public static ConfigurationKey of(final String key) {
+        final var reference = canonical.get(requireNonNull(key));
+        final var existing = reference == null ? null : reference.get();
+        if (existing != null) {
+            return existing;
+        }
+
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException(INVALID_KEY);
+        }
+
+        return canonicalize(key);
+    }
+
+    /**
+     * Returns the key with the given pieces, e.g. {@code /a/b/c} for the
+     * pieces {@code a}, {@code b} and {@code c}.
+     *
+     * @throws IllegalArgumentException If there are no pieces, or a piece
+     * is invalid.
+     * @return The canonical key for the pieces.
+     */
+    public static ConfigurationKey ofPieces(final String... pieces) {
+        return ofPieces(List.of(pieces));
+    }
+
+    public static ConfigurationKey ofPieces(final List<String> pieces) {
         if (!isValidKey(requireNonNull(pieces))) {
-            throw new IllegalArgumentException(
-                    "Invalid key. Has to consist of one or more pieces, each "
-                            + "piece consisting of lowercase characters and "
-                            + "digits");
+            throw new IllegalArgumentException(INVALID_KEY);
         }
 
-        key = '/' + String.join("/", pieces);
+        return canonicalize('/' + String.join("/", pieces));
     }
 
-    public ConfigurationKey(final String... pieces) {
-        this(List.of(pieces));
+    private static ConfigurationKey canonicalize(final String key) {
+        expungeCollectedKeys();
+        while (true) {
+            final var created = new ConfigurationKey(key, new Pieces(key));
+            final var reference = canonical.putIfAbsent(
+                    key, new KeyReference(created));
+            if (reference == null) {
+                return created;
+            }
+
+            final var existing = reference.get();
+            if (existing != null) {
+                return existing;
+            }
+
+            // The key has been collected, but its entry is still there.
+            canonical.remove(key, reference);
+        }
     }
 
-    public ConfigurationKey(final String key) {
-        if (!isValidKey(requireNonNull(key))) {
-            throw new IllegalArgumentException(
-                    "Invalid key. Has to consist of one or more pieces, each "
-                            + "piece consisting of lowercase characters and "
-                            + "digits");
+    private static void expungeCollectedKeys() {
+        KeyReference reference;
+        while ((reference = (KeyReference) collected.poll()) != null) {
+            canonical.remove(reference.key, reference);
         }
+    }
 
-        this.key = key;
+    private static final class KeyReference
+            extends WeakReference<ConfigurationKey> {
+        private final String key;
+
+        private KeyReference(final ConfigurationKey referent) {
+            super(referent, collected);
+            this.key = referent.key;
+        }
     }
 
-    private static boolean isValidKey(final String key) {
-        return keyPatter.matcher(key).matches();
+    private static boolean isPieceCharacter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Checks that a key matches {@code (/[a-zA-Z0-9]+)+} in a single pass
+     * without using regular expressions.
+     */
+    static boolean isValidKey(final CharSequence key) {
+        final var length = key.length();
+        if (length < 2 || key.charAt(0) != '/') {
+            return false;
+        }
+
+        var pieceIsEmpty = true;
+        for (int i = 1; i < length; ++i) {
+            final var c = key.charAt(i);
+            if (c == '/') {
+                if (pieceIsEmpty) {
+                    return false;
+                }
+                pieceIsEmpty = true;
+            } else if (isPieceCharacter(c)) {
+                pieceIsEmpty = false;
+            } else {
+                return false;
+            }
+        }
+
+        return !pieceIsEmpty;
+    }
+
+    static boolean isValidPiece(final CharSequence piece) {
+        final var length = piece.length();
+        if (length == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < length; ++i) {
+            if (!isPieceCharacter(piece.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     private static boolean isValidKey(final List<String> list) {
-        return !list.isEmpty() && list.stream()
-                .allMatch(piece -> piecePattern.matcher(requireNonNull(piece))
-                        .matches());
+        if (list.isEmpty()) {
+            return false;
+        }
+
+        for (final var piece : list) {
+            if (!isValidPiece(requireNonNull(piece))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the pieces of the key, e.g. {@code [a, b, c]} for the key
+     * {@code /a/b/c}. Where each piece starts is recorded once, when the key
+     * is created, the pieces themselves are only created when they are
+     * accessed.
+     *
+     * @return An unmodifiable list of the pieces of this key.
+     */
+    public List<String> pieces() {
+        return pieces;
+    }
+
+    /**
+     * Splits a valid key into its pieces, like {@link #pieces()} does for
+     * the key when it is created.
+     */
+    static List<String> split(final String key) {
+        return new Pieces(key);
+    }
+
+    private static final class Pieces extends AbstractList<String>
+            implements RandomAccess {
+        private final String path;
+
+        // separators[i] is the index of the '/' in front of piece i.
+        private final int[] separators;
+
+        private Pieces(final String path) {
+            var count = 0;
+            for (int i = 0; i < path.length(); ++i) {
+                if (path.charAt(i) == '/') {
+                    ++count;
+                }
+            }
+
+            final var separators = new int[count + 1];
+            for (int i = 0, piece = 0; i < path.length(); ++i) {
+                if (path.charAt(i) == '/') {
+                    separators[piece++] = i;
+                }
+            }
+            separators[count] = path.length();
+
+            this.path = path;
+            this.separators = separators;
+        }
+
+        @Override
+        public String get(final int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            return path.substring(separators[index] + 1,
+                                  separators[index + 1]);
+        }
+
+        @Override
+        public int size() {
+            return separators.length - 1;
+        }
     }
 
     @Override
     public boolean equals(final Object other) {
-        if (other instanceof ConfigurationKey o) {
-            return this.key.equals(o.key);
-        } else {
-            return false;
-        }
+        return this == other || other instanceof ConfigurationKey o
+                && canonicalKey == o.canonicalKey;
     }
 
     @Override
     public int hashCode() {
-        return key.hashCode();
+        return hash;
     }
 
     @Override
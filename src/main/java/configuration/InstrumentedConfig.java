@@ -0,0 +1,186 @@
+package configuration;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Wraps a config and records how often each key is read and how long the
+ * reads take. The counters are striped ({@link LongAdder}), so concurrent
+ * readers of the same key do not contend on a single memory location.
+ * <p>
+ * The report shows which keys are read the most, and which layer of the
+ * wrapped config serves them. Those keys are candidates for typed keys or
+ * for a {@link CompiledConfig}.
+ */
+public final class InstrumentedConfig implements Config {
+
+    private final Config config;
+    private final Map<ConfigurationKey, Counters> counters
+            = new ConcurrentHashMap<>();
+
+    public InstrumentedConfig(final Config config) {
+        this.config = requireNonNull(config);
+    }
+
+    private Counters countersOf(final ConfigurationKey key) {
+        final var existing = counters.get(key);
+        return existing != null ? existing
+                                : counters.computeIfAbsent(
+                                        key, k -> new Counters());
+    }
+
+    private void record(final ConfigurationKey key, final long start) {
+        countersOf(key).record(System.nanoTime() - start);
+    }
+
+    @Override
+    public boolean containsKey(final ConfigurationKey key) {
+        return config.containsKey(key);
+    }
+
+    @Override
+    public <T> T getValue(final ConfigurationKey key, final Class<T> clazz) {
+        final var start = System.nanoTime();
+        final var value = config.getValue(key, clazz);
+        record(key, start);
+        return value;
+    }
+
+    @Override
+    public Object getValue(final ConfigurationKey key) {
+        final var start = System.nanoTime();
+        final var value = config.getValue(key);
+        record(key, start);
+        return value;
+    }
+
+    @Override
+    public Class<?> getClazz(final ConfigurationKey key) {
+        return config.getClazz(key);
+    }
+
+    @Override
+    public Set<ConfigurationKey> getKeys() {
+        return config.getKeys();
+    }
+
+    @Override
+    public Set<ConfigurationKey> getKeysUnder(final ConfigurationKey prefix) {
+        return config.getKeysUnder(prefix);
+    }
+
+    @Override
+    public Config sourceOf(final ConfigurationKey key) {
+        return config.sourceOf(key);
+    }
+
+    @Override
+    public int getInt(final TypedConfigurationKey.OfInt key) {
+        final var start = System.nanoTime();
+        final var value = config.getInt(key);
+        record(key.key(), start);
+        return value;
+    }
+
+    @Override
+    public long getLong(final TypedConfigurationKey.OfLong key) {
+        final var start = System.nanoTime();
+        final var value = config.getLong(key);
+        record(key.key(), start);
+        return value;
+    }
+
+    @Override
+    public double getDouble(final TypedConfigurationKey.OfDouble key) {
+        final var start = System.nanoTime();
+        final var value = config.getDouble(key);
+        record(key.key(), start);
+        return value;
+    }
+
+    @Override
+    public boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        final var start = System.nanoTime();
+        final var value = config.getBoolean(key);
+        record(key.key(), start);
+        return value;
+    }
+
+    /**
+     * @return The statistics of all keys that have been read, the most read
+     * key first.
+     */
+    public List<KeyStatistics> report() {
+        return counters.entrySet()
+                .stream()
+                .map(entry -> entry.getValue().toStatistics(
+                        entry.getKey(),
+                        config.sourceOf(entry.getKey())
+                                .getClass()
+                                .getSimpleName()))
+                .sorted(Comparator.comparingLong(KeyStatistics::reads)
+                                .reversed())
+                .toList();
+    }
+
+    public void writeReport(final Writer writer) {
+        final var printer = new PrintWriter(requireNonNull(writer));
+        printer.printf("%-40s %12s %14s %14s %s%n", "key", "reads",
+                       "mean [ns]", "max [ns]", "source");
+        report().forEach(statistics -> printer.printf(
+                "%-40s %12d %14d %14d %s%n", statistics.key(),
+                statistics.reads(), statistics.meanLatency().toNanos(),
+                statistics.maxLatency().toNanos(), statistics.source()));
+        printer.flush();
+    }
+
+    /**
+     * Resets all counters.
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedConfig{config=%s}".formatted(config);
+    }
+
+    public record KeyStatistics(ConfigurationKey key, long reads,
+                                Duration totalLatency, Duration maxLatency,
+                                String source) {
+        public Duration meanLatency() {
+            return reads == 0 ? Duration.ZERO : totalLatency.dividedBy(reads);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(
+                Math::max, 0L);
+
+        void record(final long elapsed) {
+            reads.increment();
+            nanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+        }
+
+        KeyStatistics toStatistics(final ConfigurationKey key,
+                final String source) {
+            return new KeyStatistics(key, reads.sum(),
+                                     Duration.ofNanos(nanos.sum()),
+                                     Duration.ofNanos(maxNanos.get()), source);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package configuration;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index over configuration keys, that stores each key along the path of
+ * its pieces. Finding all keys below a prefix only walks the pieces of the
+ * prefix and then the matching subtree, so it takes time proportional to
+ * the size of the result and not to the total number of keys.
+ */
+final class KeyTrie {
+
+    private final Node root = new Node();
+
+    KeyTrie(final Iterable<ConfigurationKey> keys) {
+        keys.forEach(this::add);
+    }
+
+    private void add(final ConfigurationKey key) {
+        var node = root;
+        for (final var piece : key.pieces()) {
+            node = node.children.computeIfAbsent(piece, p -> new Node());
+        }
+
+        node.key = key;
+    }
+
+    /**
+     * Returns all keys that are equal to the prefix or are below it, that is
+     * {@code /a/b} is a prefix of {@code /a/b} and {@code /a/b/c}, but not
+     * of {@code /a/bc}.
+     *
+     * @param prefix The key whose subtree to collect.
+     * @return An unmodifiable set of all keys in the subtree.
+     */
+    Set<ConfigurationKey> keysUnder(final ConfigurationKey prefix) {
+        var node = root;
+        for (final var piece : prefix.pieces()) {
+            node = node.children.get(piece);
+            if (node == null) {
+                return Set.of();
+            }
+        }
+
+        final var result = new HashSet<ConfigurationKey>();
+        final var stack = new ArrayDeque<Node>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            final var current = stack.pop();
+            if (current.key != null) {
+                result.add(current.key);
+            }
+
+            current.children.values().forEach(stack::push);
+        }
+
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private ConfigurationKey key = null;
+    }
+}
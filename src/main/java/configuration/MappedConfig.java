@@ -0,0 +1,532 @@
+package configuration;
+
+import deserilization.Deserializer;
+import util.LazyInitialize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A config that reads its keys and values from a compact binary file, that
+ * is memory-mapped instead of read. Opening the file does not decode any key
+ * or value. Keys are found by a binary search over the mapped file, and a
+ * value is decoded the first time it is read, so the cost of a short-lived
+ * process is proportional to the number of keys it actually reads. This
+ * includes checking the file: opening it only checks the header and that
+ * the table fits into the file, each entry is checked the first time it is
+ * visited.
+ * <p>
+ * The file starts with a header (magic number, number of keys), followed
+ * by one fixed size entry per key, sorted by key, followed by the data
+ * section holding the keys and the values. Values of boxed primitive types
+ * and strings are stored directly. Values of other types are stored as their
+ * class name and their {@code toString()} representation, and are decoded
+ * with a {@link Deserializer}.
+ */
+public final class MappedConfig implements Config {
+
+    private static final int MAGIC = 0x43464731; // "CFG1"
+    private static final int HEADER_SIZE = 8;
+    private static final int ENTRY_SIZE = 16;
+
+    private static final int TAG_STRING = PrimitiveKind.OBJECT.ordinal();
+    private static final int TAG_SERIALIZED = TAG_STRING + 1;
+
+    /*
+     * Offsets of the fields of an entry, relative to the start of the entry.
+     */
+    private static final int KEY_OFFSET = 0;
+    private static final int VALUE_OFFSET = 4;
+    private static final int VALUE_LENGTH = 8;
+    private static final int KEY_LENGTH = 12;
+    private static final int TAG = 14;
+
+    // Key and class name lengths are stored as unsigned shorts.
+    private static final int MAX_LENGTH = 0xFFFF;
+
+    private static final LazyInitialize<Deserializer> deserializer
+            = new LazyInitialize<>(Deserializer::new);
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final AtomicReferenceArray<Object> values;
+    private final AtomicReferenceArray<ConfigurationKey> keys;
+    /*
+     * Whether an entry has been checked. Checking is idempotent, so a thread
+     * that does not see the flag of another thread merely checks again.
+     */
+    private final boolean[] checked;
+
+    private MappedConfig(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException(
+                    "The file is not a binary config file.");
+        }
+
+        this.size = buffer.getInt(4);
+        if (size < 0 || HEADER_SIZE + (long) size * ENTRY_SIZE
+                > buffer.limit()) {
+            throw corrupt("The header declares %d keys, but the file only "
+                                  + "has %d bytes.", size, buffer.limit());
+        }
+
+        this.values = new AtomicReferenceArray<>(size);
+        this.keys = new AtomicReferenceArray<>(size);
+        this.checked = new boolean[size];
+    }
+
+    private static IllegalArgumentException corrupt(final String format,
+            final Object... arguments) {
+        return new IllegalArgumentException(
+                "The binary config file is corrupt. " + format.formatted(
+                        arguments));
+    }
+
+    private void checkRange(final int slot, final String what,
+            final int offset, final long length) {
+        final var dataStart = HEADER_SIZE + (long) size * ENTRY_SIZE;
+        if (offset < dataStart || length < 0
+                || offset + length > buffer.limit()) {
+            throw corrupt("The %s of entry %d lies outside of the data "
+                                  + "section.", what, slot);
+        }
+    }
+
+    /*
+     * Checks that an entry only refers to the data section, so that reading
+     * it cannot fail with an IndexOutOfBoundsException. This only reads the
+     * table, no key or value is decoded.
+     *
+     * Every access to an entry starts with this method, either through the
+     * binary search or through keyAt().
+     */
+    private int checkedEntry(final int slot) {
+        final var entry = entry(slot);
+        if (!checked[slot]) {
+            checkEntry(slot, entry);
+            checked[slot] = true;
+        }
+
+        return entry;
+    }
+
+    private void checkEntry(final int slot, final int entry) {
+        checkRange(slot, "key", buffer.getInt(entry + KEY_OFFSET),
+                   buffer.getShort(entry + KEY_LENGTH) & 0xFFFF);
+
+        final var offset = buffer.getInt(entry + VALUE_OFFSET);
+        final var length = buffer.getInt(entry + VALUE_LENGTH);
+        checkRange(slot, "value", offset, length);
+
+        final var tag = buffer.get(entry + TAG);
+        if (tag < 0 || tag > TAG_SERIALIZED) {
+            throw corrupt("Entry %d has the unknown tag %d.", slot, tag);
+        } else if (tag < TAG_STRING && length != Long.BYTES) {
+            throw corrupt("The value of entry %d has %d instead of %d bytes.",
+                          slot, length, Long.BYTES);
+        } else if (tag == TAG_SERIALIZED && (length < Short.BYTES
+                || Short.BYTES + (buffer.getShort(offset) & 0xFFFF)
+                > length)) {
+            throw corrupt("The class name of entry %d does not fit into its "
+                                  + "value.", slot);
+        }
+    }
+
+    /**
+     * Maps a file previously written by {@link #write(Config, Path)}. Only
+     * the header is checked here. An entry of the table that refers outside
+     * of the file is only detected when the entry is first visited, and then
+     * throws an {@link IllegalArgumentException}.
+     *
+     * @param file The file to map.
+     * @throws IOException If the file cannot be mapped.
+     * @throws IllegalArgumentException If the file is not a binary config,
+     * or if it is corrupt.
+     * @return A config backed by the file.
+     */
+    public static MappedConfig open(final Path file) throws IOException {
+        try (final var channel = FileChannel.open(
+                requireNonNull(file), StandardOpenOption.READ)) {
+            final var buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedConfig(buffer.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Writes the current values of a config to a file.
+     *
+     * @param config The config to write.
+     * @param file The file to write to. Is replaced if it exists, atomically
+     * where the file system supports it, so that readers never see a
+     * partially written file.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalArgumentException If a value is not a boxed primitive
+     * or string, and cannot be restored by deserializing its
+     * {@code toString()} representation, or if a key or the name of a
+     * value's class is longer than 65535 characters.
+     */
+    public static void write(final Config config, final Path file)
+            throws IOException {
+        requireNonNull(config);
+        requireNonNull(file);
+
+        final var sorted = config.getKeys()
+                .stream()
+                .sorted(Comparator.comparing(ConfigurationKey::toString))
+                .toList();
+        final var encodedKeys = new byte[sorted.size()][];
+        final var encodedValues = new byte[sorted.size()][];
+        final var tags = new int[sorted.size()];
+        var dataSize = 0L;
+        for (int i = 0; i < sorted.size(); ++i) {
+            final var key = sorted.get(i);
+            final var clazz = config.getClazz(key);
+            final var value = config.getValue(key);
+            final var kind = PrimitiveKind.of(clazz);
+
+            encodedKeys[i] = key.toString().getBytes(StandardCharsets.US_ASCII);
+            if (encodedKeys[i].length > MAX_LENGTH) {
+                throw new IllegalArgumentException(
+                        ("The key starting with '%s' is %d characters long, "
+                                + "but at most %d fit.").formatted(
+                                key.toString().substring(0, 32),
+                                encodedKeys[i].length, MAX_LENGTH));
+            }
+            if (kind != PrimitiveKind.OBJECT) {
+                tags[i] = kind.ordinal();
+                encodedValues[i] = ByteBuffer.allocate(Long.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .putLong(0, kind.toBits(value))
+                        .array();
+            } else if (clazz == String.class) {
+                tags[i] = TAG_STRING;
+                encodedValues[i] = ((String) value).getBytes(
+                        StandardCharsets.UTF_8);
+            } else {
+                tags[i] = TAG_SERIALIZED;
+                encodedValues[i] = encodeSerialized(key, clazz, value);
+            }
+
+            dataSize += encodedKeys[i].length + encodedValues[i].length;
+        }
+
+        final var dataStart = HEADER_SIZE + (long) ENTRY_SIZE * sorted.size();
+        if (dataStart + dataSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "The config is too large to be written.");
+        }
+
+        final var buffer = ByteBuffer.allocate((int) (dataStart + dataSize))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(sorted.size());
+        var offset = (int) dataStart;
+        for (int i = 0; i < sorted.size(); ++i) {
+            final var entry = HEADER_SIZE + i * ENTRY_SIZE;
+            buffer.putInt(entry + KEY_OFFSET, offset);
+            buffer.put(offset, encodedKeys[i]);
+            offset += encodedKeys[i].length;
+            buffer.putInt(entry + VALUE_OFFSET, offset);
+            buffer.putInt(entry + VALUE_LENGTH, encodedValues[i].length);
+            buffer.put(offset, encodedValues[i]);
+            offset += encodedValues[i].length;
+            buffer.putShort(entry + KEY_LENGTH,
+                            (short) encodedKeys[i].length);
+            buffer.put(entry + TAG, (byte) tags[i]);
+        }
+
+        /*
+         * The file may be mapped by a running process, which must never see
+         * a partially written file. So the new file is written next to it
+         * and then replaces it.
+         */
+        final var target = file.toAbsolutePath();
+        final var temporary = Files.createTempFile(
+                target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (final var channel = FileChannel.open(
+                    temporary, StandardOpenOption.WRITE)) {
+                buffer.position(0);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+
+            try {
+                Files.move(temporary, target,
+                           StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target,
+                           StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static byte[] encodeSerialized(final ConfigurationKey key,
+            final Class<?> clazz, final Object value) {
+        final var serialized = value.toString();
+        final Object restored;
+        try {
+            restored = deserializer.get().deserialize(clazz, serialized);
+        } catch (final RuntimeException e) {
+            throw new IllegalArgumentException(
+                    "Cannot write the value of key '%s'.".formatted(key), e);
+        }
+
+        if (!Objects.equals(value, restored)) {
+            throw new IllegalArgumentException(
+                    ("Cannot write the value of key '%s', because it cannot be "
+                            + "restored from '%s'.").formatted(key, serialized));
+        }
+
+        final var className = clazz.getName().getBytes(StandardCharsets.UTF_8);
+        if (className.length > MAX_LENGTH) {
+            throw new IllegalArgumentException(
+                    ("The class name of the value of key '%s' is %d bytes "
+                            + "long, but at most %d fit.").formatted(
+                            key, className.length, MAX_LENGTH));
+        }
+        final var serializedBytes = serialized.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(
+                        Short.BYTES + className.length + serializedBytes.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) className.length)
+                .put(className)
+                .put(serializedBytes)
+                .array();
+    }
+
+    private static int entry(final int slot) {
+        return HEADER_SIZE + slot * ENTRY_SIZE;
+    }
+
+    private int compareKeyAt(final int slot, final String key) {
+        final var entry = checkedEntry(slot);
+        final var offset = buffer.getInt(entry + KEY_OFFSET);
+        final var length = buffer.getShort(entry + KEY_LENGTH) & 0xFFFF;
+        final var common = Math.min(length, key.length());
+        for (int i = 0; i < common; ++i) {
+            final var difference = (buffer.get(offset + i) & 0xFF)
+                    - key.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return length - key.length();
+    }
+
+    private int find(final ConfigurationKey key) {
+        final var path = key.toString();
+        var low = 0;
+        var high = size - 1;
+        while (low <= high) {
+            final var middle = (low + high) >>> 1;
+            final var comparison = compareKeyAt(middle, path);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    private int slot(final ConfigurationKey key) {
+        final var slot = find(requireNonNull(key));
+        if (slot < 0) {
+            throw new NoSuchElementException(
+                    "The configuration does not contain the key '%s'.".formatted(
+                            key));
+        }
+
+        return slot;
+    }
+
+    private int tag(final int slot) {
+        return buffer.get(entry(slot) + TAG);
+    }
+
+    private String readString(final int offset, final int length) {
+        final var bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String readSerializedClassName(final int slot) {
+        final var offset = buffer.getInt(entry(slot) + VALUE_OFFSET);
+        return readString(offset + Short.BYTES, buffer.getShort(offset) & 0xFFFF);
+    }
+
+    private Class<?> clazz(final int slot) {
+        final var tag = tag(slot);
+        if (tag < TAG_STRING) {
+            return PrimitiveKind.ofOrdinal(tag).boxed();
+        } else if (tag == TAG_STRING) {
+            return String.class;
+        }
+
+        final var className = readSerializedClassName(slot);
+        try {
+            return Class.forName(className);
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    "Cannot load class '%s'.".formatted(className), e);
+        }
+    }
+
+    private Object decode(final int slot) {
+        final var entry = entry(slot);
+        final var offset = buffer.getInt(entry + VALUE_OFFSET);
+        final var length = buffer.getInt(entry + VALUE_LENGTH);
+        final var tag = tag(slot);
+        if (tag < TAG_STRING) {
+            return PrimitiveKind.ofOrdinal(tag).fromBits(buffer.getLong(offset));
+        } else if (tag == TAG_STRING) {
+            return readString(offset, length);
+        }
+
+        final var classNameLength = Short.BYTES
+                + (buffer.getShort(offset) & 0xFFFF);
+        final var serialized = readString(
+                offset + classNameLength, length - classNameLength);
+        return deserializer.get().deserialize(clazz(slot), serialized);
+    }
+
+    private Object value(final int slot) {
+        final var cached = values.get(slot);
+        if (cached != null) {
+            return cached;
+        }
+
+        /*
+         * Two threads may decode the same value concurrently, but only the
+         * first result is published, so all readers see the same object.
+         */
+        final var decoded = decode(slot);
+        return values.compareAndSet(slot, null, decoded) ? decoded
+                                                         : values.get(slot);
+    }
+
+    private long bits(final TypedConfigurationKey key) {
+        final var slot = slot(key.key());
+        final var tag = tag(slot);
+        if (tag >= TAG_STRING
+                || PrimitiveKind.ofOrdinal(tag).boxed() != key.clazz()) {
+            throw new IllegalArgumentException(
+                    ("Cannot assign an object of type '%s' to an object of "
+                            + "type '%s'").formatted(clazz(slot), key.clazz()));
+        }
+
+        return buffer.getLong(buffer.getInt(entry(slot) + VALUE_OFFSET));
+    }
+
+    private ConfigurationKey keyAt(final int slot) {
+        final var cached = keys.get(slot);
+        if (cached != null) {
+            return cached;
+        }
+
+        final var entry = checkedEntry(slot);
+        final var key = ConfigurationKey.of(readString(
+                buffer.getInt(entry + KEY_OFFSET),
+                buffer.getShort(entry + KEY_LENGTH) & 0xFFFF));
+        keys.compareAndSet(slot, null, key);
+        return key;
+    }
+
+    @Override
+    public boolean containsKey(final ConfigurationKey key) {
+        return find(requireNonNull(key)) >= 0;
+    }
+
+    @Override
+    public <T> T getValue(final ConfigurationKey key, final Class<T> clazz) {
+        requireNonNull(clazz);
+        final var slot = slot(key);
+        final var valueClass = clazz(slot);
+        if (!clazz.isAssignableFrom(valueClass)) {
+            throw new IllegalArgumentException(
+                    ("Cannot assign an object of type '%s' to an object of "
+                            + "type '%s'").formatted(valueClass, clazz));
+        }
+
+        /*
+         * Safety: We know this cast is safe because of the if-condition
+         * check above.
+         */
+        return (T) value(slot);
+    }
+
+    @Override
+    public Object getValue(final ConfigurationKey key) {
+        return value(slot(key));
+    }
+
+    @Override
+    public Class<?> getClazz(final ConfigurationKey key) {
+        return clazz(slot(key));
+    }
+
+    /**
+     * Decodes all keys of the file, so this costs time proportional to the
+     * number of keys.
+     */
+    @Override
+    public Set<ConfigurationKey> getKeys() {
+        final var result = new HashSet<ConfigurationKey>(size * 4 / 3 + 1);
+        for (int slot = 0; slot < size; ++slot) {
+            result.add(keyAt(slot));
+        }
+
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public int getInt(final TypedConfigurationKey.OfInt key) {
+        return (int) bits(key);
+    }
+
+    @Override
+    public long getLong(final TypedConfigurationKey.OfLong key) {
+        return bits(key);
+    }
+
+    @Override
+    public double getDouble(final TypedConfigurationKey.OfDouble key) {
+        return Double.longBitsToDouble(bits(key));
+    }
+
+    @Override
+    public boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        return bits(key) != 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedConfig{size=%d}".formatted(size);
+    }
+}
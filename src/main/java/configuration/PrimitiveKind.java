@@ -0,0 +1,73 @@
+package configuration;
+
+/**
+ * The primitive type that a configuration value of a boxed class unboxes to.
+ * Values of a primitive kind are stored as their raw bits in a {@code long},
+ * so they can be read back without unboxing.
+ */
+enum PrimitiveKind {
+    INT(Integer.class),
+    LONG(Long.class),
+    SHORT(Short.class),
+    BYTE(Byte.class),
+    CHAR(Character.class),
+    BOOLEAN(Boolean.class),
+    FLOAT(Float.class),
+    DOUBLE(Double.class),
+    OBJECT(Object.class);
+
+    private static final PrimitiveKind[] KINDS = values();
+
+    private final Class<?> boxed;
+
+    PrimitiveKind(final Class<?> boxed) {
+        this.boxed = boxed;
+    }
+
+    static PrimitiveKind of(final Class<?> clazz) {
+        for (final var kind : KINDS) {
+            if (kind.boxed == clazz) {
+                return kind;
+            }
+        }
+
+        return OBJECT;
+    }
+
+    static PrimitiveKind ofOrdinal(final int ordinal) {
+        return KINDS[ordinal];
+    }
+
+    Class<?> boxed() {
+        return boxed;
+    }
+
+    long toBits(final Object value) {
+        return switch (this) {
+            case INT -> (Integer) value;
+            case LONG -> (Long) value;
+            case SHORT -> (Short) value;
+            case BYTE -> (Byte) value;
+            case CHAR -> (Character) value;
+            case BOOLEAN -> (Boolean) value ? 1L : 0L;
+            case FLOAT -> Float.floatToRawIntBits((Float) value);
+            case DOUBLE -> Double.doubleToRawLongBits((Double) value);
+            case OBJECT -> 0L;
+        };
+    }
+
+    Object fromBits(final long bits) {
+        return switch (this) {
+            case INT -> (int) bits;
+            case LONG -> bits;
+            case SHORT -> (short) bits;
+            case BYTE -> (byte) bits;
+            case CHAR -> (char) bits;
+            case BOOLEAN -> bits != 0L;
+            case FLOAT -> Float.intBitsToFloat((int) bits);
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            case OBJECT -> throw new IllegalStateException(
+                    "Objects are not stored as bits.");
+        };
+    }
+}
@@ -0,0 +1,303 @@
+package configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A config that overrides a base config with the values from a properties
+ * file, and reloads the file whenever it changes.
+ * <p>
+ * Every reload builds a complete new {@link CompiledConfig} snapshot and
+ * then publishes it with a single volatile write. Readers never take a lock
+ * and always see either the old or the new snapshot, never a mix of both.
+ * If a reload fails (e.g. because the file contains a value that cannot be
+ * deserialized) the old snapshot stays in place. Failures of automatic
+ * reloads are logged, unless another handler is set with
+ * {@link #onReloadFailure(Consumer)}. An exception thrown by a change
+ * listener does not fail the reload, it is passed to the handler set with
+ * {@link #onListenerFailure(Consumer)} (which logs it by default) and the
+ * remaining listeners are still called.
+ */
+public final class ReloadingConfig implements Config, AutoCloseable {
+    private static final System.Logger LOGGER
+            = System.getLogger(ReloadingConfig.class.getName());
+
+    private final Config baseConfig;
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread watcher;
+    private final Map<ConfigurationKey, List<ChangeListener>> listeners
+            = new ConcurrentHashMap<>();
+
+    private volatile CompiledConfig current;
+    private volatile Consumer<Exception> onReloadFailure
+            = this::logReloadFailure;
+    private volatile Consumer<Exception> onListenerFailure
+            = ReloadingConfig::logListenerFailure;
+
+    private long reloadCount = 0L;
+    private volatile long lastReloadNanos = 0L;
+    private volatile long maxReloadNanos = 0L;
+
+    public ReloadingConfig(final Config baseConfig, final Path file)
+            throws IOException {
+        this.baseConfig = requireNonNull(baseConfig);
+        this.file = requireNonNull(file).toAbsolutePath();
+        this.current = load();
+
+        watchService = this.file.getFileSystem().newWatchService();
+        try {
+            this.file.getParent().register(
+                    watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (final IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        watcher = new Thread(this::watch,
+                             "ReloadingConfig-" + this.file.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private CompiledConfig load() {
+        final var properties = new Properties();
+        try (final InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return CompiledConfig.compile(
+                new ConfigFromProperties(baseConfig, properties));
+    }
+
+    private void watch() {
+        final var fileName = file.getFileName();
+        try {
+            while (true) {
+                final var watchKey = watchService.take();
+                final var changed = watchKey.pollEvents()
+                        .stream()
+                        .anyMatch(event -> fileName.equals(event.context()));
+                watchKey.reset();
+
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (final RuntimeException e) {
+                        onReloadFailure.accept(e);
+                    }
+                }
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException e) {
+            // The config has been closed.
+        }
+    }
+
+    private void logReloadFailure(final Exception e) {
+        LOGGER.log(System.Logger.Level.WARNING,
+                   "Could not reload '%s', keeping the previous values."
+                           .formatted(file), e);
+    }
+
+    private static void logListenerFailure(final Exception e) {
+        LOGGER.log(System.Logger.Level.WARNING,
+                   "A change listener failed, the new values are in place.",
+                   e);
+    }
+
+    /**
+     * Re-reads the properties file and swaps in the new values. This is
+     * called automatically when the file changes, but can also be called
+     * manually.
+     *
+     * @throws UncheckedIOException If the file cannot be read.
+     */
+    public void reload() {
+        final CompiledConfig old;
+        final CompiledConfig next;
+        synchronized (this) {
+            final var start = System.nanoTime();
+            old = current;
+            next = load();
+            current = next;
+
+            final var elapsed = System.nanoTime() - start;
+            ++reloadCount;
+            lastReloadNanos = elapsed;
+            maxReloadNanos = Math.max(maxReloadNanos, elapsed);
+        }
+
+        // Outside the lock, so a slow listener does not block other reloads.
+        notifyListeners(old, next);
+    }
+
+    private void notifyListeners(final Config old, final Config next) {
+        listeners.forEach((key, keyListeners) -> {
+            final var oldValue = old.getValue(key);
+            final var newValue = next.getValue(key);
+            if (!Objects.equals(oldValue, newValue)) {
+                for (final var listener : keyListeners) {
+                    try {
+                        listener.onChange(key, oldValue, newValue);
+                    } catch (final RuntimeException e) {
+                        onListenerFailure.accept(e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a listener, that is called after a reload changed the
+     * value of the given key. Listeners are called on the thread that
+     * performed the reload, after the new values have been published. If
+     * several threads reload at the same time, their listener calls may
+     * interleave.
+     *
+     * @param key The key to observe.
+     * @param listener The listener to notify.
+     * @throws java.util.NoSuchElementException If the key is not part of
+     * the config.
+     */
+    public void addListener(final ConfigurationKey key,
+            final ChangeListener listener) {
+        requireNonNull(listener);
+        current.slot(key);
+        listeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>())
+                .add(listener);
+    }
+
+    public void removeListener(final ConfigurationKey key,
+            final ChangeListener listener) {
+        final var keyListeners = listeners.get(requireNonNull(key));
+        if (keyListeners != null) {
+            keyListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Sets the handler for failed automatic reloads, replacing the default
+     * handler, which logs the failure as a warning.
+     */
+    public void onReloadFailure(final Consumer<Exception> handler) {
+        onReloadFailure = requireNonNull(handler);
+    }
+
+    /**
+     * Sets the handler for exceptions thrown by change listeners, replacing
+     * the default handler, which logs them as warnings. The handler is
+     * called on the thread that performed the reload.
+     */
+    public void onListenerFailure(final Consumer<Exception> handler) {
+        onListenerFailure = requireNonNull(handler);
+    }
+
+    public synchronized long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * @return How long the last reload took, from starting to read the file
+     * until the new values were published. Zero if there was no reload yet.
+     */
+    public Duration getLastReloadLatency() {
+        return Duration.ofNanos(lastReloadNanos);
+    }
+
+    public Duration getMaxReloadLatency() {
+        return Duration.ofNanos(maxReloadNanos);
+    }
+
+    /**
+     * @return The current snapshot. Reading several values from one
+     * snapshot guarantees that they are consistent with each other.
+     */
+    public CompiledConfig snapshot() {
+        return current;
+    }
+
+    @Override
+    public boolean containsKey(final ConfigurationKey key) {
+        return current.containsKey(key);
+    }
+
+    @Override
+    public <T> T getValue(final ConfigurationKey key, final Class<T> clazz) {
+        return current.getValue(key, clazz);
+    }
+
+    @Override
+    public Object getValue(final ConfigurationKey key) {
+        return current.getValue(key);
+    }
+
+    @Override
+    public Class<?> getClazz(final ConfigurationKey key) {
+        return current.getClazz(key);
+    }
+
+    @Override
+    public Set<ConfigurationKey> getKeys() {
+        return current.getKeys();
+    }
+
+    @Override
+    public Set<ConfigurationKey> getKeysUnder(final ConfigurationKey prefix) {
+        return current.getKeysUnder(prefix);
+    }
+
+    @Override
+    public int getInt(final TypedConfigurationKey.OfInt key) {
+        return current.getInt(key);
+    }
+
+    @Override
+    public long getLong(final TypedConfigurationKey.OfLong key) {
+        return current.getLong(key);
+    }
+
+    @Override
+    public double getDouble(final TypedConfigurationKey.OfDouble key) {
+        return current.getDouble(key);
+    }
+
+    @Override
+    public boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        return current.getBoolean(key);
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.interrupt();
+        watchService.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ReloadingConfig{file=%s, current=%s}".formatted(file, current);
+    }
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChange(ConfigurationKey key, Object oldValue, Object newValue);
+    }
+}
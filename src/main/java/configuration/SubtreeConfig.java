@@ -0,0 +1,94 @@
+package configuration;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A view of the keys of a config that lie below some prefix. Keys keep
+ * their full path. Values are read from the underlying config, so the view
+ * reflects changes of it.
+ */
+final class SubtreeConfig implements Config {
+
+    private final Config config;
+    private final ConfigurationKey prefix;
+    private final Set<ConfigurationKey> keys;
+
+    SubtreeConfig(final Config config, final ConfigurationKey prefix,
+            final Set<ConfigurationKey> keys) {
+        this.config = requireNonNull(config);
+        this.prefix = requireNonNull(prefix);
+        this.keys = requireNonNull(keys);
+    }
+
+    private ConfigurationKey check(final ConfigurationKey key) {
+        if (!keys.contains(requireNonNull(key))) {
+            throw new NoSuchElementException(
+                    "The configuration does not contain the key '%s'.".formatted(
+                            key));
+        }
+
+        return key;
+    }
+
+    @Override
+    public boolean containsKey(final ConfigurationKey key) {
+        return keys.contains(requireNonNull(key));
+    }
+
+    @Override
+    public <T> T getValue(final ConfigurationKey key, final Class<T> clazz) {
+        return config.getValue(check(key), clazz);
+    }
+
+    @Override
+    public Object getValue(final ConfigurationKey key) {
+        return config.getValue(check(key));
+    }
+
+    @Override
+    public Class<?> getClazz(final ConfigurationKey key) {
+        return config.getClazz(check(key));
+    }
+
+    @Override
+    public Config sourceOf(final ConfigurationKey key) {
+        return config.sourceOf(check(key));
+    }
+
+    @Override
+    public Set<ConfigurationKey> getKeys() {
+        return keys;
+    }
+
+    @Override
+    public int getInt(final TypedConfigurationKey.OfInt key) {
+        check(key.key());
+        return config.getInt(key);
+    }
+
+    @Override
+    public long getLong(final TypedConfigurationKey.OfLong key) {
+        check(key.key());
+        return config.getLong(key);
+    }
+
+    @Override
+    public double getDouble(final TypedConfigurationKey.OfDouble key) {
+        check(key.key());
+        return config.getDouble(key);
+    }
+
+    @Override
+    public boolean getBoolean(final TypedConfigurationKey.OfBoolean key) {
+        check(key.key());
+        return config.getBoolean(key);
+    }
+
+    @Override
+    public String toString() {
+        return "SubtreeConfig{prefix=%s, keys=%s}".formatted(prefix, keys);
+    }
+}
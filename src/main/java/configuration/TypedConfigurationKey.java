@@ -0,0 +1,78 @@
+package configuration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ConfigurationKey} that carries the primitive type of its value.
+ * Reading a value through a typed key skips the {@code Class} check of
+ * {@link Config#getValue(ConfigurationKey, Class)} and returns the value
+ * unboxed.
+ */
+public sealed interface TypedConfigurationKey permits
+        TypedConfigurationKey.OfInt, TypedConfigurationKey.OfLong,
+        TypedConfigurationKey.OfDouble, TypedConfigurationKey.OfBoolean {
+
+    static OfInt ofInt(final String key) {
+        return new OfInt(ConfigurationKey.of(key));
+    }
+
+    static OfLong ofLong(final String key) {
+        return new OfLong(ConfigurationKey.of(key));
+    }
+
+    static OfDouble ofDouble(final String key) {
+        return new OfDouble(ConfigurationKey.of(key));
+    }
+
+    static OfBoolean ofBoolean(final String key) {
+        return new OfBoolean(ConfigurationKey.of(key));
+    }
+
+    ConfigurationKey key();
+
+    Class<?> clazz();
+
+    record OfInt(ConfigurationKey key) implements TypedConfigurationKey {
+        public OfInt(final ConfigurationKey key) {
+            this.key = requireNonNull(key);
+        }
+
+        @Override
+        public Class<Integer> clazz() {
+            return Integer.class;
+        }
+    }
+
+    record OfLong(ConfigurationKey key) implements TypedConfigurationKey {
+        public OfLong(final ConfigurationKey key) {
+            this.key = requireNonNull(key);
+        }
+
+        @Override
+        public Class<Long> clazz() {
+            return Long.class;
+        }
+    }
+
+    record OfDouble(ConfigurationKey key) implements TypedConfigurationKey {
+        public OfDouble(final ConfigurationKey key) {
+            this.key = requireNonNull(key);
+        }
+
+        @Override
+        public Class<Double> clazz() {
+            return Double.class;
+        }
+    }
+
+    record OfBoolean(ConfigurationKey key) implements TypedConfigurationKey {
+        public OfBoolean(final ConfigurationKey key) {
+            this.key = requireNonNull(key);
+        }
+
+        @Override
+        public Class<Boolean> clazz() {
+            return Boolean.class;
+        }
+    }
+}
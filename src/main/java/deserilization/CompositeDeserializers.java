@@ -0,0 +1,450 @@
+package deserilization;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static deserilization.Deserializer.DeserializeClass;
+import static deserilization.Deserializer.DeserializeClassException;
+
+/**
+ * Deserializers for arrays, lists, sets, maps and optionals, that delegate
+ * their elements to the deserializers of the element types. They accept the
+ * format produced by {@code toString()} of the JDK classes, e.g.
+ * {@code [1, 2, 3]}, {@code {a=1, b=2}} or {@code Optional[x]}. The
+ * brackets around lists and maps may be omitted.
+ * <p>
+ * Elements are separated by commas, separators inside nested brackets are
+ * skipped, so {@code [[1, 2], [3]]} is a list of two lists. Elements cannot
+ * contain commas or brackets otherwise, there is no escaping. Each element
+ * is deserialized in place from the input, and the results are collected
+ * into presized arrays.
+ */
+final class CompositeDeserializers {
+
+    private static final int[] NO_ELEMENTS = new int[0];
+
+    private CompositeDeserializers() {
+    }
+
+    private static boolean isOpening(final char c) {
+        return c == '[' || c == '{' || c == '(';
+    }
+
+    private static boolean isClosing(final char c) {
+        return c == ']' || c == '}' || c == ')';
+    }
+
+    private static int skipLeading(final CharSequence s, int start,
+            final int end) {
+        while (start < end && Character.isWhitespace(s.charAt(start))) {
+            ++start;
+        }
+        return start;
+    }
+
+    private static int skipTrailing(final CharSequence s, final int start,
+            int end) {
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            --end;
+        }
+        return end;
+    }
+
+    private static DeserializeClassException unbalanced(
+            final CharSequence s, final int start, final int end) {
+        return new DeserializeClassException(
+                "Unbalanced brackets in '%s'.".formatted(
+                        s.subSequence(start, end)));
+    }
+
+    /*
+     * Whether the bracket at start is closed by the last character, i.e.
+     * whether the whole range is wrapped in one pair of brackets.
+     */
+    private static boolean isWrapped(final CharSequence s, final int start,
+            final int end, final char open, final char close) {
+        if (end - start < 2 || s.charAt(start) != open
+                || s.charAt(end - 1) != close) {
+            return false;
+        }
+
+        var depth = 0;
+        for (int i = start; i < end - 1; ++i) {
+            final var c = s.charAt(i);
+            if (isOpening(c)) {
+                ++depth;
+            } else if (isClosing(c) && --depth == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the top level elements of the range, e.g. of {@code [a, b]}.
+     *
+     * @return The trimmed elements as pairs of start and end index.
+     */
+    static int[] elements(final CharSequence s, final int from, final int to,
+            final char open, final char close) {
+        var start = skipLeading(s, from, to);
+        var end = skipTrailing(s, start, to);
+        if (isWrapped(s, start, end, open, close)) {
+            start = skipLeading(s, start + 1, end - 1);
+            end = skipTrailing(s, start, end - 1);
+        }
+
+        if (start == end) {
+            return NO_ELEMENTS;
+        }
+
+        var count = 1;
+        var depth = 0;
+        for (int i = start; i < end; ++i) {
+            final var c = s.charAt(i);
+            if (isOpening(c)) {
+                ++depth;
+            } else if (isClosing(c)) {
+                if (--depth < 0) {
+                    throw unbalanced(s, from, to);
+                }
+            } else if (c == ',' && depth == 0) {
+                ++count;
+            }
+        }
+
+        if (depth != 0) {
+            throw unbalanced(s, from, to);
+        }
+
+        final var ranges = new int[2 * count];
+        var index = 0;
+        var elementStart = start;
+        for (int i = start; i <= end; ++i) {
+            final var c = i < end ? s.charAt(i) : ',';
+            if (isOpening(c)) {
+                ++depth;
+            } else if (isClosing(c)) {
+                --depth;
+            } else if (c == ',' && depth == 0) {
+                final var trimmedStart = skipLeading(s, elementStart, i);
+                ranges[index++] = trimmedStart;
+                ranges[index++] = skipTrailing(s, trimmedStart, i);
+                elementStart = i + 1;
+            }
+        }
+
+        return ranges;
+    }
+
+    private static int separator(final CharSequence s, final int start,
+            final int end) {
+        var depth = 0;
+        for (int i = start; i < end; ++i) {
+            final var c = s.charAt(i);
+            if (isOpening(c)) {
+                ++depth;
+            } else if (isClosing(c)) {
+                --depth;
+            } else if (c == '=' && depth == 0) {
+                return i;
+            }
+        }
+
+        throw new DeserializeClassException(
+                "Missing '=' in map entry '%s'.".formatted(
+                        s.subSequence(start, end)));
+    }
+
+    private abstract static class Composite<T> implements DeserializeClass<T> {
+        private final Class<T> clazz;
+
+        Composite(final Class<?> clazz) {
+            /*
+             * The composites are only reachable through the type they were
+             * built for, so the unchecked cast is safe.
+             */
+            this.clazz = (Class<T>) clazz;
+        }
+
+        @Override
+        public Class<T> getDeserializedClass() {
+            return clazz;
+        }
+
+        @Override
+        public T deserialize(final String serialized) {
+            return deserialize(serialized, 0, serialized.length());
+        }
+
+        @Override
+        public abstract T deserialize(CharSequence serialized, int start,
+                int end);
+    }
+
+    static final class IntArray extends Composite<int[]> {
+        private final DeserializeClass<Integer> element;
+
+        IntArray(final DeserializeClass<Integer> element) {
+            super(int[].class);
+            this.element = element;
+        }
+
+        @Override
+        public int[] deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            final var ranges = elements(serialized, start, end, '[', ']');
+            final var result = new int[ranges.length / 2];
+            if (element instanceof DeserializeClass.OfInt specialized) {
+                for (int i = 0; i < result.length; ++i) {
+                    result[i] = specialized.deserializeInt(
+                            serialized, ranges[2 * i], ranges[2 * i + 1]);
+                }
+            } else {
+                for (int i = 0; i < result.length; ++i) {
+                    result[i] = element.deserialize(
+                            serialized, ranges[2 * i], ranges[2 * i + 1]);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    static final class LongArray extends Composite<long[]> {
+        private final DeserializeClass<Long> element;
+
+        LongArray(final DeserializeClass<Long> element) {
+            super(long[].class);
+            this.element = element;
+        }
+
+        @Override
+        public long[] deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            final var ranges = elements(serialized, start, end, '[', ']');
+            final var result = new long[ranges.length / 2];
+            if (element instanceof DeserializeClass.OfLong specialized) {
+                for (int i = 0; i < result.length; ++i) {
+                    result[i] = specialized.deserializeLong(
+                            serialized, ranges[2 * i], ranges[2 * i + 1]);
+                }
+            } else {
+                for (int i = 0; i < result.length; ++i) {
+                    result[i] = element.deserialize(
+                            serialized, ranges[2 * i], ranges[2 * i + 1]);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    static final class DoubleArray extends Composite<double[]> {
+        private final DeserializeClass<Double> element;
+
+        DoubleArray(final DeserializeClass<Double> element) {
+            super(double[].class);
+            this.element = element;
+        }
+
+        @Override
+        public double[] deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            final var ranges = elements(serialized, start, end, '[', ']');
+            final var result = new double[ranges.length / 2];
+            if (element instanceof DeserializeClass.OfDouble specialized) {
+                for (int i = 0; i < result.length; ++i) {
+                    result[i] = specialized.deserializeDouble(
+                            serialized, ranges[2 * i], ranges[2 * i + 1]);
+                }
+            } else {
+                for (int i = 0; i < result.length; ++i) {
+                    result[i] = element.deserialize(
+                            serialized, ranges[2 * i], ranges[2 * i + 1]);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    /*
+     * Arrays of the remaining primitive types and of objects. The elements
+     * are stored reflectively, which unboxes them for primitive arrays.
+     */
+    static final class ReflectiveArray extends Composite<Object> {
+        private final Class<?> componentType;
+        private final DeserializeClass<?> element;
+
+        ReflectiveArray(final Class<?> componentType,
+                final DeserializeClass<?> element) {
+            super(Array.newInstance(componentType, 0).getClass());
+            this.componentType = componentType;
+            this.element = element;
+        }
+
+        @Override
+        public Object deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            final var ranges = elements(serialized, start, end, '[', ']');
+            final var result = Array.newInstance(componentType,
+                                                 ranges.length / 2);
+            for (int i = 0; i < ranges.length / 2; ++i) {
+                Array.set(result, i, element.deserialize(
+                        serialized, ranges[2 * i], ranges[2 * i + 1]));
+            }
+
+            return result;
+        }
+    }
+
+    static final class ListOf<E> extends Composite<List<E>> {
+        private final DeserializeClass<E> element;
+
+        ListOf(final DeserializeClass<E> element) {
+            super(List.class);
+            this.element = element;
+        }
+
+        @Override
+        public List<E> deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            final var ranges = elements(serialized, start, end, '[', ']');
+            final var result = new Object[ranges.length / 2];
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = element.deserialize(
+                        serialized, ranges[2 * i], ranges[2 * i + 1]);
+            }
+
+            /*
+             * The array only holds elements of type E, and it does not
+             * escape, so the unchecked cast is safe.
+             */
+            return Collections.unmodifiableList(
+                    (List<E>) Arrays.asList(result));
+        }
+    }
+
+    static final class SetOf<E> extends Composite<Set<E>> {
+        private final DeserializeClass<E> element;
+
+        SetOf(final DeserializeClass<E> element) {
+            super(Set.class);
+            this.element = element;
+        }
+
+        @Override
+        public Set<E> deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            final var ranges = elements(serialized, start, end, '[', ']');
+            final var result = new LinkedHashSet<E>(
+                    capacityFor(ranges.length / 2));
+            for (int i = 0; i < ranges.length / 2; ++i) {
+                result.add(element.deserialize(
+                        serialized, ranges[2 * i], ranges[2 * i + 1]));
+            }
+
+            return Collections.unmodifiableSet(result);
+        }
+    }
+
+    static final class MapOf<K, V> extends Composite<Map<K, V>> {
+        private final DeserializeClass<K> key;
+        private final DeserializeClass<V> value;
+
+        MapOf(final DeserializeClass<K> key, final DeserializeClass<V> value) {
+            super(Map.class);
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public Map<K, V> deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            final var ranges = elements(serialized, start, end, '{', '}');
+            final var result = new LinkedHashMap<K, V>(
+                    capacityFor(ranges.length / 2));
+            for (int i = 0; i < ranges.length / 2; ++i) {
+                final var entryStart = ranges[2 * i];
+                final var entryEnd = ranges[2 * i + 1];
+                final var separator = separator(serialized, entryStart,
+                                                entryEnd);
+                final var keyEnd = skipTrailing(serialized, entryStart,
+                                                separator);
+                final var valueStart = skipLeading(serialized, separator + 1,
+                                                   entryEnd);
+                final var k = key.deserialize(serialized, entryStart, keyEnd);
+                final var v = value.deserialize(serialized, valueStart,
+                                                entryEnd);
+                if (result.putIfAbsent(k, v) != null) {
+                    throw new DeserializeClassException(
+                            "Duplicate key '%s'.".formatted(k));
+                }
+            }
+
+            return Collections.unmodifiableMap(result);
+        }
+    }
+
+    static final class OptionalOf<E> extends Composite<Optional<E>> {
+        private static final String EMPTY = "Optional.empty";
+        private static final String PREFIX = "Optional[";
+
+        private final DeserializeClass<E> element;
+
+        OptionalOf(final DeserializeClass<E> element) {
+            super(Optional.class);
+            this.element = element;
+        }
+
+        private static boolean matches(final CharSequence s, final int start,
+                final int end, final String expected) {
+            if (end - start < expected.length()) {
+                return false;
+            }
+
+            for (int i = 0; i < expected.length(); ++i) {
+                if (s.charAt(start + i) != expected.charAt(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public Optional<E> deserialize(final CharSequence serialized,
+                final int from, final int to) {
+            final var start = skipLeading(serialized, from, to);
+            final var end = skipTrailing(serialized, start, to);
+            if (end - start == EMPTY.length()
+                    && matches(serialized, start, end, EMPTY)) {
+                return Optional.empty();
+            }
+
+            if (!matches(serialized, start, end, PREFIX)
+                    || end - start == PREFIX.length()
+                    || serialized.charAt(end - 1) != ']') {
+                throw new DeserializeClassException(
+                        "Cannot deserialize '%s' as a Optional.".formatted(
+                                serialized.subSequence(from, to)));
+            }
+
+            return Optional.of(element.deserialize(
+                    serialized, start + PREFIX.length(), end - 1));
+        }
+    }
+
+    private static int capacityFor(final int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
@@ -1,87 +1,431 @@
 package deserilization;
 
-import plugin.PluginLoader;
-
-import java.util.Map;
+import java.lang.reflect.Type;
 import java.util.NoSuchElementException;
-import java.util.Optional;
-import java.util.Set;
-import java.util.function.Supplier;
+import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.toMap;
 
 public final class Deserializer {
 
-    private static final String DESERIALIZERS_PACKAGE =
-            Deserializer.class.getPackageName() + ".deserializers";
-
-    private final static Set<Supplier<DeserializeClass<?>>>
-            deserializerConstructors = new PluginLoader<>(
-            DESERIALIZERS_PACKAGE,
-            getDeserializerClassType()
-    ).getConstructors();
-    private final Map<Class<?>, DeserializeClass<?>> deserializers;
+    private final DeserializerRegistry registry;
 
+    /**
+     * Creates a deserializer that uses the default registry. The registry is
+     * shared by all deserializers, so this is cheap after the first call.
+     */
     public Deserializer() {
-        try {
-            deserializers = deserializerConstructors.stream()
-                    .map(Supplier::get)
-                    .collect(toMap(DeserializeClass::getDeserializedClass,
-                                   identity()
-                                  ));
-        } catch (final IllegalStateException duplicateKey) {
-            throw new MultipleDeserializersForClassException(duplicateKey);
-        }
+        this(DeserializerRegistry.getDefault());
     }
 
-    private static Class<DeserializeClass<?>> getDeserializerClassType() {
-        /*
-         * Getting the Class type of a generic type requires an unchecked
-         * cast. It is safe, because DeserializeClass<?> gets type erased to
-         * DeserializedClass by the compiler anyway.
-         */
-        return (Class<DeserializeClass<?>>) (Class<?>) DeserializeClass.class;
+    public Deserializer(final DeserializerRegistry registry) {
+        this.registry = requireNonNull(registry);
+    }
+
+    private static DeserializeClassException failed(
+            final CharSequence serialized, final Type target,
+            final DeserializeClassException cause) {
+        final var message = String.format(
+                "Could not deserialize '%s' into object of class '%s'.",
+                serialized, target
+                                         );
+        return new DeserializeClassException(message, cause);
     }
 
     private static <T> T deserialize(final DeserializeClass<T> deserializer,
-            final Class<T> target, final String serialized) {
+            final Type target, final String serialized) {
         try {
             return deserializer.deserialize(serialized);
         } catch (final DeserializeClassException e) {
-            final var message = String.format(
-                    "Could not deserialize '%s' into object of class '%s'.",
-                    serialized, target
-                                             );
-            throw new DeserializeClassException(message, e);
+            throw failed(serialized, target, e);
         }
 
     }
 
+    private static <T> T deserialize(final DeserializeClass<T> deserializer,
+            final Type target, final CharSequence serialized,
+            final int start, final int end) {
+        Objects.checkFromToIndex(start, end, serialized.length());
+        try {
+            return deserializer.deserialize(serialized, start, end);
+        } catch (final DeserializeClassException e) {
+            throw failed(serialized.subSequence(start, end), target, e);
+        }
+    }
+
     public <T> T deserialize(final Class<T> target, final String serialized) {
         requireNonNull(target);
         requireNonNull(serialized);
 
-        return getDeserializer(target).map(
-                        d -> deserialize(d, target, serialized))
-                .orElseThrow(() -> new NoDeserializerForClassException(target));
+        return deserialize(getDeserializer(target), target, serialized);
     }
 
-    private <T> Optional<DeserializeClass<T>> getDeserializer(
-            final Class<T> clazz) {
-        /*
-         * We populate the map by mapping each class to the type it deserializes
-         * to, so this unchecked cast is safe.
-         */
-        return Optional.ofNullable(
-                (DeserializeClass<T>) deserializers.get(clazz));
+    /**
+     * Deserializes the characters {@code [start, end)} of the given
+     * sequence, without copying them into a string first (if the
+     * deserializer for the target class supports that).
+     *
+     * @param target The class to deserialize into.
+     * @param serialized The sequence holding the serialized value.
+     * @param start The index of the first character of the value.
+     * @param end The index after the last character of the value.
+     * @throws IndexOutOfBoundsException If the range is out of bounds.
+     * @return The deserialized value.
+     * @param <T> The type to deserialize into.
+     */
+    public <T> T deserialize(final Class<T> target,
+            final CharSequence serialized, final int start, final int end) {
+        requireNonNull(target);
+        requireNonNull(serialized);
+
+        return deserialize(getDeserializer(target), target, serialized, start,
+                           end);
+    }
+
+    /**
+     * Deserializes into a possibly generic type, e.g.
+     * {@code new TypeToken<List<Integer>>() {}}. Arrays, lists, sets, maps
+     * and optionals are deserialized from the format of their
+     * {@code toString()} methods, e.g. {@code [1, 2, 3]} or
+     * {@code {a=1, b=2}}.
+     *
+     * @param target The type to deserialize into.
+     * @param serialized The serialized value.
+     * @throws NoDeserializerForClassException If there is no deserializer for
+     * the type or one of its element types.
+     * @return The deserialized value.
+     * @param <T> The type to deserialize into.
+     */
+    public <T> T deserialize(final TypeToken<T> target,
+            final String serialized) {
+        requireNonNull(serialized);
+
+        return deserialize(getDeserializer(requireNonNull(target)),
+                           target.getType(), serialized);
+    }
+
+    /*
+     * The deserializeInt(), deserializeLong(), ... methods never box the
+     * result if the deserializer of the boxed class implements the matching
+     * primitive specialization, e.g. DeserializeClass.OfInt. Otherwise they
+     * fall back to the boxed deserializer and unbox its result.
+     *
+     * They share deserializeBits(), which returns the value as the bits of a
+     * long, so it does not have to box: an int or long as is, a float or
+     * double as its raw bits, and a boolean as 0 or 1. Once it is inlined
+     * into one of the methods, the checks of the target class fold away.
+     */
+
+    private static long toBits(final Object value) {
+        if (value instanceof Integer i) {
+            return i;
+        } else if (value instanceof Long l) {
+            return l;
+        } else if (value instanceof Double d) {
+            return Double.doubleToRawLongBits(d);
+        } else if (value instanceof Float f) {
+            return Float.floatToRawIntBits(f);
+        } else if (value instanceof Boolean b) {
+            return b ? 1 : 0;
+        }
+
+        throw new NullPointerException("The deserializer returned null.");
+    }
+
+    private long deserializeBits(final Class<?> target,
+            final CharSequence serialized, final int start, final int end) {
+        requireNonNull(serialized);
+        Objects.checkFromToIndex(start, end, serialized.length());
+
+        final var deserializer = getDeserializer(target);
+        try {
+            if (target == Integer.class
+                    && deserializer instanceof DeserializeClass.OfInt d) {
+                return d.deserializeInt(serialized, start, end);
+            } else if (target == Long.class
+                    && deserializer instanceof DeserializeClass.OfLong d) {
+                return d.deserializeLong(serialized, start, end);
+            } else if (target == Double.class
+                    && deserializer instanceof DeserializeClass.OfDouble d) {
+                return Double.doubleToRawLongBits(
+                        d.deserializeDouble(serialized, start, end));
+            } else if (target == Float.class
+                    && deserializer instanceof DeserializeClass.OfFloat d) {
+                return Float.floatToRawIntBits(
+                        d.deserializeFloat(serialized, start, end));
+            } else if (target == Boolean.class
+                    && deserializer instanceof DeserializeClass.OfBoolean d) {
+                return d.deserializeBoolean(serialized, start, end) ? 1 : 0;
+            }
+
+            return toBits(deserializer.deserialize(serialized, start, end));
+        } catch (final DeserializeClassException e) {
+            throw failed(serialized.subSequence(start, end), target, e);
+        }
+    }
+
+    public int deserializeInt(final String serialized) {
+        return deserializeInt(serialized, 0, serialized.length());
+    }
+
+    public int deserializeInt(final CharSequence serialized, final int start,
+            final int end) {
+        return (int) deserializeBits(Integer.class, serialized, start, end);
+    }
+
+    public long deserializeLong(final String serialized) {
+        return deserializeLong(serialized, 0, serialized.length());
+    }
+
+    public long deserializeLong(final CharSequence serialized, final int start,
+            final int end) {
+        return deserializeBits(Long.class, serialized, start, end);
+    }
+
+    public double deserializeDouble(final String serialized) {
+        return deserializeDouble(serialized, 0, serialized.length());
+    }
+
+    public double deserializeDouble(final CharSequence serialized,
+            final int start, final int end) {
+        return Double.longBitsToDouble(
+                deserializeBits(Double.class, serialized, start, end));
+    }
+
+    public float deserializeFloat(final String serialized) {
+        return deserializeFloat(serialized, 0, serialized.length());
+    }
+
+    public float deserializeFloat(final CharSequence serialized,
+            final int start, final int end) {
+        return Float.intBitsToFloat((int) deserializeBits(
+                Float.class, serialized, start, end));
+    }
+
+    public boolean deserializeBoolean(final String serialized) {
+        return deserializeBoolean(serialized, 0, serialized.length());
+    }
+
+    public boolean deserializeBoolean(final CharSequence serialized,
+            final int start, final int end) {
+        return deserializeBits(Boolean.class, serialized, start, end) != 0;
+    }
+
+    /**
+     * Returns a handle that deserializes into the given class. The
+     * deserializer is looked up once, so holding on to the handle skips the
+     * dispatch on every call.
+     *
+     * @param target The class to deserialize into.
+     * @throws NoDeserializerForClassException If there is no deserializer
+     * for the class.
+     * @return A handle that deserializes into the given class.
+     * @param <T> The type to deserialize into.
+     */
+    public <T> BoundDeserializer<T> forClass(final Class<T> target) {
+        return new BoundDeserializer<>(
+                getDeserializer(requireNonNull(target)), TypeToken.of(target));
+    }
+
+    /**
+     * Like {@link #forClass(Class)}, but for a possibly generic type. The
+     * deserializers of the element types are resolved once as well.
+     *
+     * @param target The type to deserialize into.
+     * @throws NoDeserializerForClassException If there is no deserializer for
+     * the type or one of its element types.
+     * @return A handle that deserializes into the given type.
+     * @param <T> The type to deserialize into.
+     */
+    public <T> BoundDeserializer<T> forType(final TypeToken<T> target) {
+        return new BoundDeserializer<>(
+                getDeserializer(requireNonNull(target)), target);
+    }
+
+    private <T> DeserializeClass<T> getDeserializer(final Class<T> clazz) {
+        final var deserializer = registry.lookup(clazz);
+        if (deserializer == null) {
+            throw new NoDeserializerForClassException(clazz);
+        }
+
+        return deserializer;
+    }
+
+    private <T> DeserializeClass<T> getDeserializer(final TypeToken<T> type) {
+        final var deserializer = registry.lookup(type);
+        if (deserializer == null) {
+            throw new NoDeserializerForClassException(type.getType());
+        }
+
+        return deserializer;
+    }
+
+    public static final class BoundDeserializer<T> {
+        private final DeserializeClass<T> deserializer;
+        private final TypeToken<T> target;
+
+        private BoundDeserializer(final DeserializeClass<T> deserializer,
+                final TypeToken<T> target) {
+            this.deserializer = deserializer;
+            this.target = target;
+        }
+
+        public TypeToken<T> getTarget() {
+            return target;
+        }
+
+        public T deserialize(final String serialized) {
+            return Deserializer.deserialize(
+                    deserializer, target.getType(), requireNonNull(serialized));
+        }
+
+        public T deserialize(final CharSequence serialized, final int start,
+                final int end) {
+            return Deserializer.deserialize(
+                    deserializer, target.getType(), requireNonNull(serialized),
+                    start, end);
+        }
+
+        @Override
+        public String toString() {
+            return "BoundDeserializer{target=%s}".formatted(target);
+        }
     }
 
     public interface DeserializeClass<T> {
         Class<T> getDeserializedClass();
 
         T deserialize(final String serialized);
+
+        /**
+         * Deserializes the characters {@code [start, end)} of the given
+         * sequence. The range has already been checked by the caller.
+         * <p>
+         * The default implementation copies the range into a string.
+         * Deserializers should override this if they can parse the range
+         * in place.
+         */
+        default T deserialize(final CharSequence serialized, final int start,
+                final int end) {
+            return deserialize(serialized.subSequence(start, end).toString());
+        }
+
+        /**
+         * A deserializer that can return its result as an unboxed
+         * {@code int}.
+         */
+        interface OfInt extends DeserializeClass<Integer> {
+            int deserializeInt(CharSequence serialized, int start, int end);
+
+            default int deserializeInt(final String serialized) {
+                return deserializeInt(serialized, 0, serialized.length());
+            }
+
+            @Override
+            default Integer deserialize(final String serialized) {
+                return deserializeInt(serialized);
+            }
+
+            @Override
+            default Integer deserialize(final CharSequence serialized,
+                    final int start, final int end) {
+                return deserializeInt(serialized, start, end);
+            }
+        }
+
+        /**
+         * A deserializer that can return its result as an unboxed
+         * {@code long}.
+         */
+        interface OfLong extends DeserializeClass<Long> {
+            long deserializeLong(CharSequence serialized, int start, int end);
+
+            default long deserializeLong(final String serialized) {
+                return deserializeLong(serialized, 0, serialized.length());
+            }
+
+            @Override
+            default Long deserialize(final String serialized) {
+                return deserializeLong(serialized);
+            }
+
+            @Override
+            default Long deserialize(final CharSequence serialized,
+                    final int start, final int end) {
+                return deserializeLong(serialized, start, end);
+            }
+        }
+
+        /**
+         * A deserializer that can return its result as an unboxed
+         * {@code double}.
+         */
+        interface OfDouble extends DeserializeClass<Double> {
+            double deserializeDouble(CharSequence serialized, int start,
+                    int end);
+
+            default double deserializeDouble(final String serialized) {
+                return deserializeDouble(serialized, 0, serialized.length());
+            }
+
+            @Override
+            default Double deserialize(final String serialized) {
+                return deserializeDouble(serialized);
+            }
+
+            @Override
+            default Double deserialize(final CharSequence serialized,
+                    final int start, final int end) {
+                return deserializeDouble(serialized, start, end);
+            }
+        }
+
+        /**
+         * A deserializer that can return its result as an unboxed
+         * {@code float}.
+         */
+        interface OfFloat extends DeserializeClass<Float> {
+            float deserializeFloat(CharSequence serialized, int start, int end);
+
+            default float deserializeFloat(final String serialized) {
+                return deserializeFloat(serialized, 0, serialized.length());
+            }
+
+            @Override
+            default Float deserialize(final String serialized) {
+                return deserializeFloat(serialized);
+            }
+
+            @Override
+            default Float deserialize(final CharSequence serialized,
+                    final int start, final int end) {
+                return deserializeFloat(serialized, start, end);
+            }
+        }
+
+        /**
+         * A deserializer that can return its result as an unboxed
+         * {@code boolean}.
+         */
+        interface OfBoolean extends DeserializeClass<Boolean> {
+            boolean deserializeBoolean(CharSequence serialized, int start,
+                    int end);
+
+            default boolean deserializeBoolean(final String serialized) {
+                return deserializeBoolean(serialized, 0, serialized.length());
+            }
+
+            @Override
+            default Boolean deserialize(final String serialized) {
+                return deserializeBoolean(serialized);
+            }
+
+            @Override
+            default Boolean deserialize(final CharSequence serialized,
+                    final int start, final int end) {
+                return deserializeBoolean(serialized, start, end);
+            }
+        }
     }
 
     public static final class DeserializeClassException
@@ -110,6 +454,10 @@ public final class Deserializer {
         public MultipleDeserializersForClassException(final Throwable cause) {
             super(cause);
         }
+
+        public MultipleDeserializersForClassException(final String message) {
+            super(message);
+        }
     }
 
     public static final class NoDeserializerForClassException
@@ -120,5 +468,10 @@ public final class Deserializer {
                     clazz
                                ));
         }
+
+        public NoDeserializerForClassException(final Type type) {
+            super("Found no deserializer to deserialize to type '%s'."
+                          .formatted(type.getTypeName()));
+        }
     }
 }
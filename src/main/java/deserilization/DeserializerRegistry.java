@@ -0,0 +1,270 @@
+package deserilization;
+
+import plugin.PluginLoader;
+import util.LazyInitialize;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static deserilization.Deserializer.DeserializeClass;
+import static deserilization.Deserializer.MultipleDeserializersForClassException;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * An immutable mapping from classes to the deserializers for them. The
+ * default registry holds the deserializer plugins found on the classpath. It
+ * is built once per process and shared by every {@link Deserializer} that
+ * does not get a registry of its own.
+ * <p>
+ * Registries are shared between threads, so deserializers registered in
+ * them have to be thread-safe.
+ */
+public final class DeserializerRegistry {
+
+    private static final String DESERIALIZERS_PACKAGE =
+            Deserializer.class.getPackageName() + ".deserializers";
+
+    private static final LazyInitialize<DeserializerRegistry> defaultRegistry
+            = new LazyInitialize<>(DeserializerRegistry::loadPlugins);
+
+    private final Map<Class<?>, DeserializeClass<?>> deserializers;
+
+    /*
+     * Caches the deserializer of each class, so dispatching a call neither
+     * hashes the class nor allocates. Array classes map to the composite
+     * deserializer built for them. Holds null for classes without a
+     * deserializer.
+     */
+    private final ClassValue<DeserializeClass<?>> dispatch
+            = new ClassValue<>() {
+        @Override
+        protected DeserializeClass<?> computeValue(final Class<?> type) {
+            return type.isArray() ? composeArray(type.getComponentType())
+                                  : deserializers.get(type);
+        }
+    };
+
+    /*
+     * The composite deserializers built for generic types, so their element
+     * deserializers are only resolved once per type.
+     */
+    private final Map<Type, DeserializeClass<?>> composites
+            = new ConcurrentHashMap<>();
+
+    private DeserializerRegistry(
+            final Map<Class<?>, DeserializeClass<?>> deserializers) {
+        this.deserializers = Map.copyOf(deserializers);
+    }
+
+    /**
+     * @return The registry holding the deserializer plugins. The plugins
+     * are discovered and instantiated on the first call only.
+     */
+    public static DeserializerRegistry getDefault() {
+        return defaultRegistry.get();
+    }
+
+    public static DeserializerRegistry empty() {
+        return new DeserializerRegistry(Map.of());
+    }
+
+    private static Class<DeserializeClass<?>> getDeserializerClassType() {
+        /*
+         * Getting the Class type of a generic type requires an unchecked
+         * cast. It is safe, because DeserializeClass<?> gets type erased to
+         * DeserializedClass by the compiler anyway.
+         */
+        return (Class<DeserializeClass<?>>) (Class<?>) DeserializeClass.class;
+    }
+
+    private static DeserializerRegistry loadPlugins() {
+        final Set<Supplier<DeserializeClass<?>>> constructors
+                = new PluginLoader<>(DESERIALIZERS_PACKAGE,
+                                     getDeserializerClassType())
+                .getConstructors();
+        // Constructed first, so only a duplicate key is caught below.
+        final List<DeserializeClass<?>> deserializers = constructors.stream()
+                .<DeserializeClass<?>>map(Supplier::get)
+                .toList();
+        try {
+            return new DeserializerRegistry(deserializers.stream()
+                    .collect(toMap(DeserializeClass::getDeserializedClass,
+                                   identity())));
+        } catch (final IllegalStateException duplicateKey) {
+            throw new MultipleDeserializersForClassException(duplicateKey);
+        }
+    }
+
+    /**
+     * Returns a new registry, that holds the deserializers of this registry
+     * and the given deserializers. This registry is not changed.
+     *
+     * @param additional The deserializers to add.
+     * @throws MultipleDeserializersForClassException If there already is a
+     * deserializer for the class of an added deserializer.
+     * @return The extended registry.
+     */
+    public DeserializerRegistry with(
+            final Collection<? extends DeserializeClass<?>> additional) {
+        final var extended = new HashMap<>(deserializers);
+        for (final var deserializer : additional) {
+            final var clazz = requireNonNull(deserializer)
+                    .getDeserializedClass();
+            if (extended.putIfAbsent(clazz, deserializer) != null) {
+                throw new MultipleDeserializersForClassException(
+                        "There already is a deserializer for class '%s'."
+                                .formatted(clazz));
+            }
+        }
+
+        return new DeserializerRegistry(extended);
+    }
+
+    public DeserializerRegistry with(final DeserializeClass<?>... additional) {
+        return with(List.of(additional));
+    }
+
+    public Set<Class<?>> getDeserializedClasses() {
+        return deserializers.keySet();
+    }
+
+    /**
+     * @return The deserializer for the class, or {@code null} if there is
+     * none. Array classes are resolved like {@link #lookup(TypeToken)}
+     * does.
+     */
+    <T> DeserializeClass<T> lookup(final Class<T> clazz) {
+        /*
+         * We populate the map by mapping each class to the type it deserializes
+         * to, so this unchecked cast is safe.
+         */
+        return (DeserializeClass<T>) dispatch.get(clazz);
+    }
+
+    /**
+     * Resolves the deserializer for a possibly generic type. Arrays,
+     * {@code List}, {@code Collection}, {@code Set}, {@code Map} and
+     * {@code Optional} are deserialized by composite deserializers, that
+     * delegate to the deserializers of their element types. All other types
+     * need a deserializer for their class.
+     *
+     * @return The deserializer for the type, or {@code null} if there is
+     * none for the type or for one of its element types.
+     */
+    <T> DeserializeClass<T> lookup(final TypeToken<T> type) {
+        /*
+         * Composites are built for the type of the token, so this unchecked
+         * cast is safe.
+         */
+        return (DeserializeClass<T>) resolve(type.getType());
+    }
+
+    private DeserializeClass<?> resolve(final Type type) {
+        if (type instanceof Class<?> clazz) {
+            return dispatch.get(clazz);
+        }
+
+        final var cached = composites.get(type);
+        if (cached != null) {
+            return cached;
+        }
+
+        final var composite = compose(type);
+        if (composite == null) {
+            return null;
+        }
+
+        final var existing = composites.putIfAbsent(type, composite);
+        return existing != null ? existing : composite;
+    }
+
+    private DeserializeClass<?> compose(final Type type) {
+        if (type instanceof GenericArrayType array) {
+            final var componentType = array.getGenericComponentType();
+            final var element = resolve(componentType);
+            return element == null ? null
+                                   : new CompositeDeserializers.ReflectiveArray(
+                                           TypeToken.rawClassOf(componentType),
+                                           element);
+        } else if (type instanceof ParameterizedType parameterized) {
+            return composeParameterized(parameterized);
+        } else {
+            return null;
+        }
+    }
+
+    private DeserializeClass<?> composeArray(final Class<?> componentType) {
+        if (componentType == int.class) {
+            final var element = lookup(Integer.class);
+            return element == null ? null
+                                   : new CompositeDeserializers.IntArray(
+                                           element);
+        } else if (componentType == long.class) {
+            final var element = lookup(Long.class);
+            return element == null ? null
+                                   : new CompositeDeserializers.LongArray(
+                                           element);
+        } else if (componentType == double.class) {
+            final var element = lookup(Double.class);
+            return element == null ? null
+                                   : new CompositeDeserializers.DoubleArray(
+                                           element);
+        }
+
+        final var element = resolve(componentType.isPrimitive()
+                                            ? boxed(componentType)
+                                            : componentType);
+        return element == null ? null
+                               : new CompositeDeserializers.ReflectiveArray(
+                                       componentType, element);
+    }
+
+    private static Class<?> boxed(final Class<?> primitive) {
+        // The element of a new primitive array is the boxed default value.
+        return Array.get(Array.newInstance(primitive, 1), 0).getClass();
+    }
+
+    private DeserializeClass<?> composeParameterized(
+            final ParameterizedType type) {
+        final var raw = type.getRawType();
+        final var arguments = type.getActualTypeArguments();
+        final var elements = new DeserializeClass<?>[arguments.length];
+        for (int i = 0; i < arguments.length; ++i) {
+            elements[i] = resolve(arguments[i]);
+            if (elements[i] == null) {
+                return null;
+            }
+        }
+
+        if (raw == List.class || raw == Collection.class) {
+            return new CompositeDeserializers.ListOf<>(elements[0]);
+        } else if (raw == Set.class) {
+            return new CompositeDeserializers.SetOf<>(elements[0]);
+        } else if (raw == Map.class) {
+            return new CompositeDeserializers.MapOf<>(elements[0],
+                                                      elements[1]);
+        } else if (raw == Optional.class) {
+            return new CompositeDeserializers.OptionalOf<>(elements[0]);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DeserializerRegistry{classes=%s}".formatted(
+                deserializers.keySet());
+    }
+}
@@ -0,0 +1,552 @@
+package deserilization;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Deserializes a sequence of delimiter-separated values, e.g. one value per
+ * line, from a {@link Reader} or a {@link ReadableByteChannel}.
+ * <p>
+ * The input is read lazily in chunks of about {@code chunkSize} characters,
+ * each ending at a delimiter. Values are deserialized in place from the
+ * chunk, so a sequential stream only ever holds one chunk in memory, no
+ * matter how large the input is. Empty values are skipped, and if the
+ * delimiter is {@code '\n'} a trailing {@code '\r'} is removed from each
+ * value.
+ * <p>
+ * The streams can be made parallel with {@link Stream#parallel()}. A
+ * parallel stream hands out one chunk per split and splits the last chunk
+ * further at delimiters near its middle, so every value is deserialized by
+ * exactly one thread. Reading the input still happens on one thread at a
+ * time, and the reading thread may run ahead of the workers.
+ * <p>
+ * If the source is a {@link SeekableByteChannel}, e.g. a file channel, the
+ * spliterators of the streams estimate their size from the bytes left in
+ * the channel, otherwise the size is unknown until the input is read to the
+ * end.
+ * <p>
+ * The streams do not close the source, that is left to the caller.
+ */
+public final class StreamingDeserializer {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    // Chunks smaller than this are not split any further.
+    private static final int MIN_SPLIT_SIZE = 1024;
+
+    private final Deserializer deserializer;
+    private final char delimiter;
+    private final int chunkSize;
+
+    /**
+     * Creates a streaming deserializer for newline separated values.
+     */
+    public StreamingDeserializer(final Deserializer deserializer) {
+        this(deserializer, '\n');
+    }
+
+    public StreamingDeserializer(final Deserializer deserializer,
+            final char delimiter) {
+        this(deserializer, delimiter, DEFAULT_CHUNK_SIZE);
+    }
+
+    public StreamingDeserializer(final Deserializer deserializer,
+            final char delimiter, final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(
+                    "The chunk size has to be positive, but was %d."
+                            .formatted(chunkSize));
+        }
+
+        this.deserializer = requireNonNull(deserializer);
+        this.delimiter = delimiter;
+        this.chunkSize = chunkSize;
+    }
+
+    private Chunks chunks(final Reader reader) {
+        return new Chunks(requireNonNull(reader), null, delimiter, chunkSize);
+    }
+
+    private Chunks chunks(final ReadableByteChannel channel,
+            final Charset charset) {
+        final var reader = Channels.newReader(requireNonNull(channel),
+                                              requireNonNull(charset));
+        return new Chunks(reader,
+                          channel instanceof SeekableByteChannel seekable
+                          ? seekable : null,
+                          delimiter, chunkSize);
+    }
+
+    /**
+     * @param target The class to deserialize the values into.
+     * @param reader The source of the values.
+     * @throws Deserializer.NoDeserializerForClassException If there is no
+     * deserializer for the class.
+     * @return A lazy stream of the deserialized values. Reading from the
+     * source throws an {@link UncheckedIOException} if it fails, and a
+     * value that cannot be deserialized throws a
+     * {@link Deserializer.DeserializeClassException}.
+     * @param <T> The type to deserialize into.
+     */
+    public <T> Stream<T> stream(final Class<T> target, final Reader reader) {
+        return stream(target, chunks(reader));
+    }
+
+    public <T> Stream<T> stream(final Class<T> target,
+            final ReadableByteChannel channel, final Charset charset) {
+        return stream(target, chunks(channel, charset));
+    }
+
+    private <T> Stream<T> stream(final Class<T> target, final Chunks chunks) {
+        final var bound = deserializer.forClass(target);
+        return StreamSupport.stream(new Values<>(chunks, delimiter, bound),
+                                    false);
+    }
+
+    /**
+     * Like {@link #stream(Class, Reader)}, but deserializes into unboxed
+     * {@code int}s, e.g. to fill an array with {@link IntStream#toArray()}.
+     */
+    public IntStream ints(final Reader reader) {
+        return StreamSupport.intStream(
+                new Ints(chunks(reader), delimiter, deserializer), false);
+    }
+
+    public IntStream ints(final ReadableByteChannel channel,
+            final Charset charset) {
+        return StreamSupport.intStream(
+                new Ints(chunks(channel, charset), delimiter, deserializer),
+                false);
+    }
+
+    public LongStream longs(final Reader reader) {
+        return StreamSupport.longStream(
+                new Longs(chunks(reader), delimiter, deserializer), false);
+    }
+
+    public LongStream longs(final ReadableByteChannel channel,
+            final Charset charset) {
+        return StreamSupport.longStream(
+                new Longs(chunks(channel, charset), delimiter, deserializer),
+                false);
+    }
+
+    public DoubleStream doubles(final Reader reader) {
+        return StreamSupport.doubleStream(
+                new Doubles(chunks(reader), delimiter, deserializer), false);
+    }
+
+    public DoubleStream doubles(final ReadableByteChannel channel,
+            final Charset charset) {
+        return StreamSupport.doubleStream(
+                new Doubles(chunks(channel, charset), delimiter, deserializer),
+                false);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingDeserializer{delimiter=%s, chunkSize=%d}".formatted(
+                delimiter == '\n' ? "\\n" : String.valueOf(delimiter),
+                chunkSize);
+    }
+
+    private record Chunk(char[] chars, int length) {
+    }
+
+    /*
+     * Reads the source in chunks that end at a delimiter (or at the end of
+     * the input). The characters after the last delimiter of a read are
+     * carried over into the next chunk. A chunk only grows beyond the chunk
+     * size if a single value does not fit into it.
+     */
+    private static final class Chunks {
+        private final Reader reader;
+        // The channel the reader decodes, if its size is known.
+        private final SeekableByteChannel channel;
+        private final char delimiter;
+        private final int chunkSize;
+
+        private char[] carry = new char[0];
+        private boolean endOfInput = false;
+
+        private Chunks(final Reader reader, final SeekableByteChannel channel,
+                final char delimiter, final int chunkSize) {
+            this.reader = reader;
+            this.channel = channel;
+            this.delimiter = delimiter;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * @return An upper bound of the characters left in the input, or
+         * {@link Long#MAX_VALUE} if it is unknown. Every character takes at
+         * least one byte, so the bytes left in the channel are a bound. The
+         * reader may already have buffered a few more, which are ignored.
+         */
+        long estimateRemaining() {
+            if (endOfInput) {
+                return carry.length;
+            }
+
+            if (channel == null) {
+                return Long.MAX_VALUE;
+            }
+
+            try {
+                return carry.length
+                        + Math.max(0, channel.size() - channel.position());
+            } catch (final IOException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        private int lastDelimiter(final char[] chars, final int length) {
+            for (int i = length - 1; i >= 0; --i) {
+                if (chars[i] == delimiter) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * @return The next chunk, or null if the input is exhausted.
+         */
+        Chunk next() {
+            if (endOfInput && carry.length == 0) {
+                return null;
+            }
+
+            var chars = Arrays.copyOf(carry,
+                                      Math.max(chunkSize, carry.length * 2));
+            var length = carry.length;
+            try {
+                while (true) {
+                    while (!endOfInput && length < chars.length) {
+                        final var read = reader.read(chars, length,
+                                                     chars.length - length);
+                        if (read < 0) {
+                            endOfInput = true;
+                        } else {
+                            length += read;
+                        }
+                    }
+
+                    if (endOfInput) {
+                        carry = new char[0];
+                        return length == 0 ? null : new Chunk(chars, length);
+                    }
+
+                    final var last = lastDelimiter(chars, length);
+                    if (last >= 0) {
+                        carry = Arrays.copyOfRange(chars, last + 1, length);
+                        return new Chunk(chars, last + 1);
+                    }
+
+                    chars = Arrays.copyOf(chars, chars.length * 2);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /*
+     * Walks over the values of a chunk, and fetches the next chunk from the
+     * source once the current one is exhausted. Spliterators split off from
+     * another one have no source and only cover a part of a single chunk.
+     */
+    private abstract static class Tokens<S extends Tokens<S>> {
+        private final char delimiter;
+        private Chunks source;
+        private char[] chars;
+        private int position;
+        private int end;
+        private CharBuffer view;
+
+        int tokenStart;
+        int tokenEnd;
+
+        Tokens(final Chunks source, final char delimiter) {
+            this.source = source;
+            this.delimiter = delimiter;
+            this.chars = new char[0];
+            this.position = 0;
+            this.end = 0;
+            this.view = CharBuffer.wrap(chars);
+        }
+
+        Tokens(final char delimiter, final char[] chars, final int start,
+                final int end) {
+            this.source = null;
+            this.delimiter = delimiter;
+            this.chars = chars;
+            this.position = start;
+            this.end = end;
+            this.view = CharBuffer.wrap(chars);
+        }
+
+        abstract S split(char[] chars, int start, int end);
+
+        char delimiter() {
+            return delimiter;
+        }
+
+        private boolean refill() {
+            if (source == null) {
+                return false;
+            }
+
+            final var chunk = source.next();
+            if (chunk == null) {
+                source = null;
+                return false;
+            }
+
+            chars = chunk.chars();
+            position = 0;
+            end = chunk.length();
+            view = CharBuffer.wrap(chars);
+            return true;
+        }
+
+        /**
+         * @return The characters of the current chunk. The current token is
+         * {@code [tokenStart, tokenEnd)} of it.
+         */
+        CharSequence chunk() {
+            return view;
+        }
+
+        /**
+         * Moves to the next non-empty value.
+         *
+         * @return False if there are no more values.
+         */
+        boolean nextToken() {
+            while (true) {
+                if (position >= end && !refill()) {
+                    return false;
+                }
+
+                var i = position;
+                while (i < end && chars[i] != delimiter) {
+                    ++i;
+                }
+
+                tokenStart = position;
+                tokenEnd = i;
+                position = i + 1;
+
+                if (delimiter == '\n' && tokenEnd > tokenStart
+                        && chars[tokenEnd - 1] == '\r') {
+                    --tokenEnd;
+                }
+
+                if (tokenEnd > tokenStart) {
+                    return true;
+                }
+            }
+        }
+
+        public S trySplit() {
+            if (source != null) {
+                if (position >= end && !refill()) {
+                    return null;
+                }
+
+                final var prefix = split(chars, position, end);
+                position = end;
+                return prefix;
+            }
+
+            if (end - position < MIN_SPLIT_SIZE) {
+                return null;
+            }
+
+            var middle = position + (end - position) / 2;
+            while (middle < end && chars[middle] != delimiter) {
+                ++middle;
+            }
+
+            if (middle >= end) {
+                return null;
+            }
+
+            final var prefix = split(chars, position, middle + 1);
+            position = middle + 1;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            // Every value takes at least one character.
+            if (source == null) {
+                return end - position;
+            }
+
+            final var remaining = source.estimateRemaining();
+            return remaining == Long.MAX_VALUE ? Long.MAX_VALUE
+                                               : end - position + remaining;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+    }
+
+    private static final class Values<T> extends Tokens<Values<T>>
+            implements Spliterator<T> {
+        private final Deserializer.BoundDeserializer<T> deserializer;
+
+        Values(final Chunks source, final char delimiter,
+                final Deserializer.BoundDeserializer<T> deserializer) {
+            super(source, delimiter);
+            this.deserializer = deserializer;
+        }
+
+        private Values(final char delimiter, final char[] chars,
+                final int start, final int end,
+                final Deserializer.BoundDeserializer<T> deserializer) {
+            super(delimiter, chars, start, end);
+            this.deserializer = deserializer;
+        }
+
+        @Override
+        Values<T> split(final char[] chars, final int start, final int end) {
+            return new Values<>(delimiter(), chars, start, end, deserializer);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            if (!nextToken()) {
+                return false;
+            }
+
+            action.accept(deserializer.deserialize(chunk(), tokenStart,
+                                                   tokenEnd));
+            return true;
+        }
+    }
+
+    private static final class Ints extends Tokens<Ints>
+            implements Spliterator.OfInt {
+        private final Deserializer deserializer;
+
+        Ints(final Chunks source, final char delimiter,
+                final Deserializer deserializer) {
+            super(source, delimiter);
+            this.deserializer = deserializer;
+        }
+
+        private Ints(final char delimiter, final char[] chars,
+                final int start, final int end,
+                final Deserializer deserializer) {
+            super(delimiter, chars, start, end);
+            this.deserializer = deserializer;
+        }
+
+        @Override
+        Ints split(final char[] chars, final int start, final int end) {
+            return new Ints(delimiter(), chars, start, end, deserializer);
+        }
+
+        @Override
+        public boolean tryAdvance(final IntConsumer action) {
+            if (!nextToken()) {
+                return false;
+            }
+
+            action.accept(deserializer.deserializeInt(chunk(), tokenStart,
+                                                      tokenEnd));
+            return true;
+        }
+    }
+
+    private static final class Longs extends Tokens<Longs>
+            implements Spliterator.OfLong {
+        private final Deserializer deserializer;
+
+        Longs(final Chunks source, final char delimiter,
+                final Deserializer deserializer) {
+            super(source, delimiter);
+            this.deserializer = deserializer;
+        }
+
+        private Longs(final char delimiter, final char[] chars,
+                final int start, final int end,
+                final Deserializer deserializer) {
+            super(delimiter, chars, start, end);
+            this.deserializer = deserializer;
+        }
+
+        @Override
+        Longs split(final char[] chars, final int start, final int end) {
+            return new Longs(delimiter(), chars, start, end, deserializer);
+        }
+
+        @Override
+        public boolean tryAdvance(final LongConsumer action) {
+            if (!nextToken()) {
+                return false;
+            }
+
+            action.accept(deserializer.deserializeLong(chunk(), tokenStart,
+                                                       tokenEnd));
+            return true;
+        }
+    }
+
+    private static final class Doubles extends Tokens<Doubles>
+            implements Spliterator.OfDouble {
+        private final Deserializer deserializer;
+
+        Doubles(final Chunks source, final char delimiter,
+                final Deserializer deserializer) {
+            super(source, delimiter);
+            this.deserializer = deserializer;
+        }
+
+        private Doubles(final char delimiter, final char[] chars,
+                final int start, final int end,
+                final Deserializer deserializer) {
+            super(delimiter, chars, start, end);
+            this.deserializer = deserializer;
+        }
+
+        @Override
+        Doubles split(final char[] chars, final int start, final int end) {
+            return new Doubles(delimiter(), chars, start, end, deserializer);
+        }
+
+        @Override
+        public boolean tryAdvance(final DoubleConsumer action) {
+            if (!nextToken()) {
+                return false;
+            }
+
+            action.accept(deserializer.deserializeDouble(chunk(), tokenStart,
+                                                         tokenEnd));
+            return true;
+        }
+    }
+}
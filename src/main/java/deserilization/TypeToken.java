@@ -0,0 +1,105 @@
+package deserilization;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Represents a possibly generic type like {@code List<Integer>}, which
+ * cannot be expressed by a {@link Class} object. Generic types are captured
+ * by an anonymous subclass:
+ * <pre>{@code
+ * final var type = new TypeToken<Map<String, List<Long>>>() {};
+ * }</pre>
+ * Two tokens are equal if they represent the same type.
+ *
+ * @param <T> The represented type.
+ */
+public abstract class TypeToken<T> {
+    private final Type type;
+    private final Class<? super T> rawType;
+
+    protected TypeToken() {
+        final var superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType parameterized)) {
+            throw new IllegalStateException(
+                    "A TypeToken has to be created with a type argument, e.g. "
+                            + "new TypeToken<List<Integer>>() {}.");
+        }
+
+        this.type = parameterized.getActualTypeArguments()[0];
+        this.rawType = rawTypeOf(type);
+    }
+
+    private TypeToken(final Class<T> clazz) {
+        this.type = requireNonNull(clazz);
+        this.rawType = clazz;
+    }
+
+    public static <T> TypeToken<T> of(final Class<T> clazz) {
+        return new OfClass<>(clazz);
+    }
+
+    private static <T> Class<? super T> rawTypeOf(final Type type) {
+        /*
+         * The raw type of T is a supertype of T, so the unchecked cast is
+         * safe.
+         */
+        return (Class<? super T>) rawClassOf(type);
+    }
+
+    static Class<?> rawClassOf(final Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        } else if (type instanceof ParameterizedType parameterized) {
+            return (Class<?>) parameterized.getRawType();
+        } else if (type instanceof GenericArrayType array) {
+            return Array.newInstance(
+                    rawClassOf(array.getGenericComponentType()), 0).getClass();
+        } else {
+            throw new IllegalArgumentException(
+                    ("The type '%s' is neither a class, a parameterized type "
+                            + "nor an array.").formatted(type));
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The class of the type without its type arguments, e.g.
+     * {@code List.class} for {@code List<Integer>}.
+     */
+    public Class<? super T> getRawType() {
+        return rawType;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (other instanceof TypeToken<?> o) {
+            return type.equals(o.type);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return type.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return type.getTypeName();
+    }
+
+    private static final class OfClass<T> extends TypeToken<T> {
+        private OfClass(final Class<T> clazz) {
+            super(clazz);
+        }
+    }
+}
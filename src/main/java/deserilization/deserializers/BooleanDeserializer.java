@@ -1,20 +1,43 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class BooleanDeserializer
-        implements Deserializer.DeserializeClass<Boolean> {
+        implements Deserializer.DeserializeClass.OfBoolean {
+
+    private static final String TRUE = "true";
+
     @Override
     public Class<Boolean> getDeserializedClass() {
         return Boolean.class;
     }
 
     @Override
-    public Boolean deserialize(final String serialized) {
-        try {
-            return Boolean.valueOf(serialized);
-        } catch (final NumberFormatException e) {
-            throw new Deserializer.DeserializeClassException(e);
+    public boolean deserializeBoolean(final String serialized) {
+        return Boolean.parseBoolean(serialized);
+    }
+
+    /**
+     * Like {@link Boolean#parseBoolean(String)}: Returns {@code true} if the range
+     * equals "true" ignoring case, else {@code false}.
+     */
+    @Override
+    public boolean deserializeBoolean(final CharSequence serialized,
+            final int start, final int end) {
+        if (end - start != TRUE.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < TRUE.length(); ++i) {
+            final var c = serialized.charAt(start + i);
+            final var expected = TRUE.charAt(i);
+            if (c != expected && Character.toLowerCase(c) != expected) {
+                return false;
+            }
         }
+
+        return true;
     }
 }
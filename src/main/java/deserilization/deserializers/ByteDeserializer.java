@@ -1,7 +1,9 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class ByteDeserializer
         implements Deserializer.DeserializeClass<Byte> {
     @Override
@@ -17,4 +19,22 @@ public final class ByteDeserializer
             throw new Deserializer.DeserializeClassException(e);
         }
     }
+
+    @Override
+    public Byte deserialize(final CharSequence serialized, final int start,
+            final int end) {
+        final int value;
+        try {
+            value = Integer.parseInt(serialized, start, end, 10);
+        } catch (final NumberFormatException e) {
+            throw new Deserializer.DeserializeClassException(e);
+        }
+
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            throw new Deserializer.DeserializeClassException(
+                    "Value %d is out of range.".formatted(value));
+        }
+
+        return (byte) value;
+    }
 }
@@ -1,7 +1,9 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class CharDeserializer
         implements Deserializer.DeserializeClass<Character> {
     @Override
@@ -18,4 +20,15 @@ public final class CharDeserializer
             return serialized.charAt(0);
         }
     }
+
+    @Override
+    public Character deserialize(final CharSequence serialized,
+            final int start, final int end) {
+        if (end - start != 1) {
+            throw new Deserializer.DeserializeClassException(
+                    "The string has be of length 1.");
+        } else {
+            return serialized.charAt(start);
+        }
+    }
 }
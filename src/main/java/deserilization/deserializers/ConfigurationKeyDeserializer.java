@@ -2,7 +2,9 @@ package deserilization.deserializers;
 
 import configuration.ConfigurationKey;
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class ConfigurationKeyDeserializer
         implements Deserializer.DeserializeClass<ConfigurationKey> {
     @Override
@@ -13,7 +15,7 @@ public final class ConfigurationKeyDeserializer
     @Override
     public ConfigurationKey deserialize(final String serialized) {
         try {
-            return new ConfigurationKey(serialized);
+            return ConfigurationKey.of(serialized);
         } catch (final IllegalArgumentException e) {
             throw new Deserializer.DeserializeClassException(e);
         }
@@ -1,18 +1,31 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class DoubleDeserializer
-        implements Deserializer.DeserializeClass<Double> {
+        implements Deserializer.DeserializeClass.OfDouble {
     @Override
     public Class<Double> getDeserializedClass() {
         return Double.class;
     }
 
     @Override
-    public Double deserialize(final String serialized) {
+    public double deserializeDouble(final String serialized) {
         try {
-            return Double.valueOf(serialized);
+            return FastDoubleParser.parseDouble(serialized, 0,
+                                                 serialized.length());
+        } catch (final NumberFormatException e) {
+            throw new Deserializer.DeserializeClassException(e);
+        }
+    }
+
+    @Override
+    public double deserializeDouble(final CharSequence serialized,
+            final int start, final int end) {
+        try {
+            return FastDoubleParser.parseDouble(serialized, start, end);
         } catch (final NumberFormatException e) {
             throw new Deserializer.DeserializeClassException(e);
         }
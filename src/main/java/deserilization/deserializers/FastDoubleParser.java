@@ -0,0 +1,318 @@
+package deserilization.deserializers;
+
+import java.math.BigInteger;
+
+/**
+ * Parses decimal numbers like {@code -12.5e-3} into doubles and floats
+ * directly from a {@link CharSequence}, using the algorithm of Eisel and
+ * Lemire (D. Lemire, "Number Parsing at a Gigabyte per Second", 2021).
+ * <p>
+ * The result is bit-exact with {@link Double#parseDouble(String)} and
+ * {@link Float#parseFloat(String)}: anything outside the plain decimal
+ * syntax (whitespace, hexadecimal numbers, {@code NaN}, type suffixes, more
+ * than 19 significant digits, ...) and the very rare inputs the fast path
+ * cannot round with certainty are handed to the JDK parser. This also means
+ * malformed input throws the same {@link NumberFormatException} as the JDK.
+ */
+final class FastDoubleParser {
+
+    private static final int MAX_DIGITS = 19;
+
+    private static final int SMALLEST_POWER_OF_FIVE = -342;
+    private static final int LARGEST_POWER_OF_FIVE = 308;
+
+    /*
+     * The 128 most significant bits of 5^q for every q the parser can
+     * produce a finite, non-zero double for, stored as (high, low) pairs.
+     * Negative powers hold the truncated reciprocal plus one. Computing the
+     * table once is cheaper than loading 1302 long constants from the
+     * constant pool.
+     */
+    private static final long[] POWERS_OF_FIVE = powersOfFive();
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    // Signals that the fast path gave up. Never a valid (positive) result.
+    private static final long FALLBACK = -1L;
+
+    private FastDoubleParser() {
+    }
+
+    private static long[] powersOfFive() {
+        final var five = BigInteger.valueOf(5);
+        final var table = new long[
+                2 * (LARGEST_POWER_OF_FIVE - SMALLEST_POWER_OF_FIVE + 1)];
+        for (int q = SMALLEST_POWER_OF_FIVE; q <= LARGEST_POWER_OF_FIVE; ++q) {
+            final BigInteger value;
+            if (q >= 0) {
+                final var power = five.pow(q);
+                final var shift = 128 - power.bitLength();
+                value = shift >= 0 ? power.shiftLeft(shift)
+                                   : power.shiftRight(-shift);
+            } else {
+                final var power = five.pow(-q);
+                final var z = power.bitLength();
+                final var b = q >= -27 ? z + 127 : 2 * z + 128;
+                final var reciprocal = BigInteger.ONE.shiftLeft(b)
+                        .divide(power)
+                        .add(BigInteger.ONE);
+                final var excess = reciprocal.bitLength() - 128;
+                value = excess > 0 ? reciprocal.shiftRight(excess)
+                                   : reciprocal;
+            }
+
+            final var index = 2 * (q - SMALLEST_POWER_OF_FIVE);
+            table[index] = value.shiftRight(64).longValue();
+            table[index + 1] = value.longValue();
+        }
+
+        return table;
+    }
+
+    private enum Format {
+        DOUBLE(52, -1023, 0x7FF, -4, 23, -342, 308),
+        FLOAT(23, -127, 0xFF, -17, 10, -65, 38);
+
+        final int mantissaBits;
+        final int minimumExponent;
+        final int infinitePower;
+        final int minRoundToEven;
+        final int maxRoundToEven;
+        final int smallestPowerOfTen;
+        final int largestPowerOfTen;
+
+        Format(final int mantissaBits, final int minimumExponent,
+                final int infinitePower, final int minRoundToEven,
+                final int maxRoundToEven, final int smallestPowerOfTen,
+                final int largestPowerOfTen) {
+            this.mantissaBits = mantissaBits;
+            this.minimumExponent = minimumExponent;
+            this.infinitePower = infinitePower;
+            this.minRoundToEven = minRoundToEven;
+            this.maxRoundToEven = maxRoundToEven;
+            this.smallestPowerOfTen = smallestPowerOfTen;
+            this.largestPowerOfTen = largestPowerOfTen;
+        }
+    }
+
+    /*
+     * The decimal w * 10^q, with w an unsigned 64-bit integer. Null if the
+     * input is not a plain decimal number with at most 19 significant digits.
+     */
+    private record Decimal(boolean negative, long w, int q) {
+    }
+
+    private static Decimal scan(final CharSequence s, final int start,
+            final int end) {
+        var i = start;
+        var negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            ++i;
+        }
+
+        var w = 0L;
+        var digits = 0;
+        var q = 0;
+        var anyDigit = false;
+        char c;
+        while (i < end && (c = s.charAt(i)) >= '0' && c <= '9') {
+            anyDigit = true;
+            if (digits > 0 || c != '0') {
+                if (++digits > MAX_DIGITS) {
+                    return null;
+                }
+                w = 10 * w + (c - '0');
+            }
+            ++i;
+        }
+
+        if (i < end && s.charAt(i) == '.') {
+            ++i;
+            while (i < end && (c = s.charAt(i)) >= '0' && c <= '9') {
+                anyDigit = true;
+                if (digits > 0 || c != '0') {
+                    if (++digits > MAX_DIGITS) {
+                        return null;
+                    }
+                    w = 10 * w + (c - '0');
+                }
+                --q;
+                ++i;
+            }
+        }
+
+        if (!anyDigit) {
+            return null;
+        }
+
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            ++i;
+            var negativeExponent = false;
+            if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negativeExponent = s.charAt(i) == '-';
+                ++i;
+            }
+
+            if (i >= end) {
+                return null;
+            }
+
+            var exponent = 0;
+            while (i < end && (c = s.charAt(i)) >= '0' && c <= '9') {
+                // Large enough to saturate to zero or infinity.
+                if (exponent < 100_000) {
+                    exponent = 10 * exponent + (c - '0');
+                }
+                ++i;
+            }
+
+            q += negativeExponent ? -exponent : exponent;
+        }
+
+        return i == end ? new Decimal(negative, w, q) : null;
+    }
+
+    private static long unsignedMultiplyHigh(final long x, final long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * Computes the bits of the positive floating point number closest to
+     * w * 10^q, or returns {@link #FALLBACK}.
+     */
+    private static long eiselLemire(final long w, final int q,
+            final Format format) {
+        if (w == 0 || q < format.smallestPowerOfTen) {
+            return 0L;
+        }
+        if (q > format.largestPowerOfTen) {
+            return (long) format.infinitePower << format.mantissaBits;
+        }
+
+        final var leadingZeros = Long.numberOfLeadingZeros(w);
+        final var normalized = w << leadingZeros;
+
+        final var index = 2 * (q - SMALLEST_POWER_OF_FIVE);
+        final var precisionMask = -1L >>> (format.mantissaBits + 3);
+        var high = unsignedMultiplyHigh(normalized, POWERS_OF_FIVE[index]);
+        var low = normalized * POWERS_OF_FIVE[index];
+        if ((high & precisionMask) == precisionMask) {
+            final var secondHigh = unsignedMultiplyHigh(
+                    normalized, POWERS_OF_FIVE[index + 1]);
+            low += secondHigh;
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                ++high;
+            }
+
+            if (low == -1L && (q < -27 || q > 55)) {
+                return FALLBACK;
+            }
+        }
+
+        final var upperBit = (int) (high >>> 63);
+        final var shift = upperBit + 64 - format.mantissaBits - 3;
+        var mantissa = high >>> shift;
+        var power2 = (((152170 + 65536) * q) >> 16) + 63 + upperBit
+                - leadingZeros - format.minimumExponent;
+
+        if (power2 <= 0) {
+            // Subnormal: the exponent is too small for a normal number.
+            if (-power2 + 1 >= 64) {
+                return 0L;
+            }
+
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << format.mantissaBits) ? 0 : 1;
+            return ((long) power2 << format.mantissaBits) | mantissa;
+        }
+
+        // Exactly halfway between two floating point numbers: round to even.
+        if (Long.compareUnsigned(low, 1L) <= 0 && q >= format.minRoundToEven
+                && q <= format.maxRoundToEven && (mantissa & 3) == 1
+                && (mantissa << shift) == high) {
+            mantissa &= ~1L;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << format.mantissaBits)) {
+            mantissa = 1L << format.mantissaBits;
+            ++power2;
+        }
+
+        mantissa &= ~(1L << format.mantissaBits);
+        if (power2 >= format.infinitePower) {
+            return (long) format.infinitePower << format.mantissaBits;
+        }
+
+        return ((long) power2 << format.mantissaBits) | mantissa;
+    }
+
+    /**
+     * Parses the characters {@code [start, end)} like
+     * {@link Double#parseDouble(String)}.
+     *
+     * @throws NumberFormatException If the characters are not a number.
+     */
+    static double parseDouble(final CharSequence s, final int start,
+            final int end) {
+        final var decimal = scan(s, start, end);
+        if (decimal != null) {
+            final var w = decimal.w();
+            final var q = decimal.q();
+            // Clinger's fast path: w and 10^|q| are exact doubles, so a
+            // single correctly rounded operation gives the right result.
+            if (q >= -22 && q <= 22 && Long.compareUnsigned(w, 1L << 53) <= 0) {
+                final var value = q < 0 ? w / DOUBLE_POWERS_OF_TEN[-q]
+                                        : w * DOUBLE_POWERS_OF_TEN[q];
+                return decimal.negative() ? -value : value;
+            }
+
+            final var bits = eiselLemire(w, q, Format.DOUBLE);
+            if (bits != FALLBACK) {
+                final var value = Double.longBitsToDouble(bits);
+                return decimal.negative() ? -value : value;
+            }
+        }
+
+        return Double.parseDouble(s.subSequence(start, end).toString());
+    }
+
+    /**
+     * Parses the characters {@code [start, end)} like
+     * {@link Float#parseFloat(String)}.
+     *
+     * @throws NumberFormatException If the characters are not a number.
+     */
+    static float parseFloat(final CharSequence s, final int start,
+            final int end) {
+        final var decimal = scan(s, start, end);
+        if (decimal != null) {
+            final var w = decimal.w();
+            final var q = decimal.q();
+            if (q >= -10 && q <= 10 && Long.compareUnsigned(w, 1L << 24) <= 0) {
+                final var value = q < 0 ? w / FLOAT_POWERS_OF_TEN[-q]
+                                        : w * FLOAT_POWERS_OF_TEN[q];
+                return decimal.negative() ? -value : value;
+            }
+
+            final var bits = eiselLemire(w, q, Format.FLOAT);
+            if (bits != FALLBACK) {
+                final var value = Float.intBitsToFloat((int) bits);
+                return decimal.negative() ? -value : value;
+            }
+        }
+
+        return Float.parseFloat(s.subSequence(start, end).toString());
+    }
+}
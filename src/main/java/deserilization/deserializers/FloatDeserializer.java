@@ -1,18 +1,31 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class FloatDeserializer
-        implements Deserializer.DeserializeClass<Float> {
+        implements Deserializer.DeserializeClass.OfFloat {
     @Override
     public Class<Float> getDeserializedClass() {
         return Float.class;
     }
 
     @Override
-    public Float deserialize(final String serialized) {
+    public float deserializeFloat(final String serialized) {
         try {
-            return Float.valueOf(serialized);
+            return FastDoubleParser.parseFloat(serialized, 0,
+                                                 serialized.length());
+        } catch (final NumberFormatException e) {
+            throw new Deserializer.DeserializeClassException(e);
+        }
+    }
+
+    @Override
+    public float deserializeFloat(final CharSequence serialized,
+            final int start, final int end) {
+        try {
+            return FastDoubleParser.parseFloat(serialized, start, end);
         } catch (final NumberFormatException e) {
             throw new Deserializer.DeserializeClassException(e);
         }
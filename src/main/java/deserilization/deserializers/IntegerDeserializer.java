@@ -1,18 +1,30 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class IntegerDeserializer
-        implements Deserializer.DeserializeClass<Integer> {
+        implements Deserializer.DeserializeClass.OfInt {
     @Override
     public Class<Integer> getDeserializedClass() {
         return Integer.class;
     }
 
     @Override
-    public Integer deserialize(final String serialized) {
+    public int deserializeInt(final String serialized) {
         try {
-            return Integer.valueOf(serialized);
+            return Integer.parseInt(serialized);
+        } catch (final NumberFormatException e) {
+            throw new Deserializer.DeserializeClassException(e);
+        }
+    }
+
+    @Override
+    public int deserializeInt(final CharSequence serialized, final int start,
+            final int end) {
+        try {
+            return Integer.parseInt(serialized, start, end, 10);
         } catch (final NumberFormatException e) {
             throw new Deserializer.DeserializeClassException(e);
         }
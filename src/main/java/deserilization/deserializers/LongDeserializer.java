@@ -1,18 +1,30 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class LongDeserializer
-        implements Deserializer.DeserializeClass<Long> {
+        implements Deserializer.DeserializeClass.OfLong {
     @Override
     public Class<Long> getDeserializedClass() {
         return Long.class;
     }
 
     @Override
-    public Long deserialize(final String serialized) {
+    public long deserializeLong(final String serialized) {
         try {
-            return Long.valueOf(serialized);
+            return Long.parseLong(serialized);
+        } catch (final NumberFormatException e) {
+            throw new Deserializer.DeserializeClassException(e);
+        }
+    }
+
+    @Override
+    public long deserializeLong(final CharSequence serialized, final int start,
+            final int end) {
+        try {
+            return Long.parseLong(serialized, start, end, 10);
         } catch (final NumberFormatException e) {
             throw new Deserializer.DeserializeClassException(e);
         }
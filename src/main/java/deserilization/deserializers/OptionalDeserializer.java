@@ -1,10 +1,12 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
 import java.util.Optional;
 import java.util.regex.Pattern;
 
+@Plugin
 public final class OptionalDeserializer
         implements Deserializer.DeserializeClass<Optional<String>> {
 
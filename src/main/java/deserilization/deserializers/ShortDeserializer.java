@@ -1,7 +1,9 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class ShortDeserializer
         implements Deserializer.DeserializeClass<Short> {
     @Override
@@ -17,4 +19,22 @@ public final class ShortDeserializer
             throw new Deserializer.DeserializeClassException(e);
         }
     }
+
+    @Override
+    public Short deserialize(final CharSequence serialized, final int start,
+            final int end) {
+        final int value;
+        try {
+            value = Integer.parseInt(serialized, start, end, 10);
+        } catch (final NumberFormatException e) {
+            throw new Deserializer.DeserializeClassException(e);
+        }
+
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new Deserializer.DeserializeClassException(
+                    "Value %d is out of range.".formatted(value));
+        }
+
+        return (short) value;
+    }
 }
@@ -1,7 +1,9 @@
 package deserilization.deserializers;
 
 import deserilization.Deserializer;
+import plugin.Plugin;
 
+@Plugin
 public final class StringDeserializer
         implements Deserializer.DeserializeClass<String> {
 
@@ -0,0 +1,193 @@
+package dynamicClassLoader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The parts of a class file needed to decide whether a class could be a
+ * plugin, read directly from its bytes. Reading the header neither loads
+ * nor initializes the class.
+ *
+ * @param name The binary name of the class, e.g. {@code a.b.C$D}.
+ * @param superName The binary name of the super class, or null for
+ * {@code java.lang.Object} and modules.
+ * @param interfaces The binary names of the directly implemented interfaces.
+ * @param accessFlags The access flags of the class.
+ * @param hasPublicZeroArgumentConstructor Whether the class declares a
+ * public constructor without parameters.
+ */
+public record ClassFileHeader(String name, String superName,
+                              List<String> interfaces, int accessFlags,
+                              boolean hasPublicZeroArgumentConstructor) {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_MODULE = 0x8000;
+
+    public ClassFileHeader {
+        requireNonNull(name);
+        interfaces = List.copyOf(interfaces);
+    }
+
+    /**
+     * @return Whether objects of the class can be constructed, i.e. whether
+     * it is neither an interface, an abstract class nor a module.
+     */
+    public boolean isConcreteClass() {
+        return (accessFlags & (ACC_INTERFACE | ACC_ABSTRACT | ACC_MODULE)) == 0;
+    }
+
+    /**
+     * @return The names of the super class and the interfaces.
+     */
+    public List<String> supertypes() {
+        if (superName == null) {
+            return interfaces;
+        }
+
+        final List<String> supertypes = new ArrayList<>(interfaces.size() + 1);
+        supertypes.add(superName);
+        supertypes.addAll(interfaces);
+        return supertypes;
+    }
+
+    /**
+     * Reads the header of a class file from the given class loader.
+     *
+     * @param classLoader The class loader to read the class file from.
+     * @param className The binary name of the class.
+     * @throws UncheckedIOException If the class file cannot be read.
+     * @throws IllegalArgumentException If the class file is malformed.
+     * @return The header, or an empty optional if the class loader has no
+     * class file for the class.
+     */
+    public static Optional<ClassFileHeader> read(final ClassLoader classLoader,
+            final String className) {
+        final var resource = className.replace('.', '/') + ".class";
+        try (final var in = classLoader.getResourceAsStream(resource)) {
+            return in == null ? Optional.empty() : Optional.of(read(in));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the header from the start of a class file. Only the constant
+     * pool, the class information, the fields and the methods are read, the
+     * rest of the stream is ignored.
+     *
+     * @throws IOException If the stream cannot be read.
+     * @throws IllegalArgumentException If the class file is malformed.
+     */
+    public static ClassFileHeader read(final InputStream classFile)
+            throws IOException {
+        final var in = new DataInputStream(
+                new BufferedInputStream(requireNonNull(classFile)));
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file.");
+        }
+
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        final var constantPoolCount = in.readUnsignedShort();
+        final var utf8 = new String[constantPoolCount];
+        final var classNameIndex = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; ++i) {
+            final var tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7 -> classNameIndex[i] = in.readUnsignedShort();
+                case 8, 16, 19, 20 -> in.skipNBytes(2);
+                case 15 -> in.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                case 5, 6 -> {
+                    // Longs and doubles take up two entries.
+                    in.skipNBytes(8);
+                    ++i;
+                }
+                default -> throw new IllegalArgumentException(
+                        "Unknown constant pool tag %d.".formatted(tag));
+            }
+        }
+
+        final var accessFlags = in.readUnsignedShort();
+        final var name = className(utf8, classNameIndex,
+                                   in.readUnsignedShort());
+        final var superIndex = in.readUnsignedShort();
+        final var superName = superIndex == 0
+                              ? null
+                              : className(utf8, classNameIndex, superIndex);
+
+        final var interfaceCount = in.readUnsignedShort();
+        final List<String> interfaces = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; ++i) {
+            interfaces.add(className(utf8, classNameIndex,
+                                     in.readUnsignedShort()));
+        }
+
+        final var fieldCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; ++i) {
+            in.skipNBytes(6);
+            skipAttributes(in);
+        }
+
+        var hasPublicZeroArgumentConstructor = false;
+        final var methodCount = in.readUnsignedShort();
+        for (int i = 0; i < methodCount; ++i) {
+            final var methodAccessFlags = in.readUnsignedShort();
+            final var methodName = utf8(utf8, in.readUnsignedShort());
+            final var descriptor = utf8(utf8, in.readUnsignedShort());
+            skipAttributes(in);
+            if ((methodAccessFlags & ACC_PUBLIC) != 0
+                    && "<init>".equals(methodName) && "()V".equals(descriptor)) {
+                hasPublicZeroArgumentConstructor = true;
+            }
+        }
+
+        return new ClassFileHeader(name, superName, interfaces, accessFlags,
+                                   hasPublicZeroArgumentConstructor);
+    }
+
+    private static String className(final String[] utf8,
+            final int[] classNameIndex, final int index) {
+        if (index <= 0 || index >= classNameIndex.length
+                || classNameIndex[index] <= 0
+                || classNameIndex[index] >= utf8.length
+                || utf8[classNameIndex[index]] == null) {
+            throw new IllegalArgumentException(
+                    "Invalid class reference %d.".formatted(index));
+        }
+
+        return utf8[classNameIndex[index]].replace('/', '.');
+    }
+
+    private static String utf8(final String[] utf8, final int index) {
+        if (index <= 0 || index >= utf8.length || utf8[index] == null) {
+            throw new IllegalArgumentException(
+                    "Invalid string reference %d.".formatted(index));
+        }
+
+        return utf8[index];
+    }
+
+    private static void skipAttributes(final DataInputStream in)
+            throws IOException {
+        final var attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; ++i) {
+            in.skipNBytes(2);
+            in.skipNBytes(Integer.toUnsignedLong(in.readInt()));
+        }
+    }
+}
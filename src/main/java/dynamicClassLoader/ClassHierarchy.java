@@ -0,0 +1,74 @@
+package dynamicClassLoader;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Answers subtype queries from class file headers (see
+ * {@link ClassFileHeader}), without loading any class. Headers are cached,
+ * so walking the hierarchies of many classes with common supertypes reads
+ * each class file only once.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class ClassHierarchy {
+    private final ClassLoader classLoader;
+    private final Map<String, Optional<ClassFileHeader>> headers
+            = new HashMap<>();
+
+    public ClassHierarchy(final ClassLoader classLoader) {
+        this.classLoader = requireNonNull(classLoader);
+    }
+
+    public Optional<ClassFileHeader> header(final String className) {
+        final var cached = headers.get(requireNonNull(className));
+        if (cached != null) {
+            return cached;
+        }
+
+        final var header = ClassFileHeader.read(classLoader, className);
+        headers.put(className, header);
+        return header;
+    }
+
+    private static boolean isPlatformClass(final String className) {
+        return className.startsWith("java.") || className.startsWith("javax.");
+    }
+
+    /**
+     * Checks whether a class may be a subtype of another one. If a class
+     * file in the hierarchy cannot be read, the class is assumed to be a
+     * subtype, so this only returns false if the class files prove it.
+     *
+     * @param className The binary name of the class to check.
+     * @param supertype The binary name of the supertype.
+     * @return False if the class is definitely not a subtype.
+     */
+    public boolean mayBeSubtypeOf(final String className,
+            final String supertype) {
+        if (className.equals(requireNonNull(supertype))) {
+            return true;
+        }
+
+        // Platform classes cannot extend or implement application types.
+        if (isPlatformClass(className) && !isPlatformClass(supertype)) {
+            return false;
+        }
+
+        final var header = header(className);
+        if (header.isEmpty()) {
+            return true;
+        }
+
+        for (final var parent : header.get().supertypes()) {
+            if (mayBeSubtypeOf(parent, supertype)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -3,16 +3,74 @@ package dynamicClassLoader;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ResolvedModule;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Finds and loads all classes in a package (including its subpackages). The
+ * package may be spread over several directories and jar files on the
+ * classpath of the context class loader, and over the named modules of the
+ * boot layer, i.e. the modules of the runtime image and of the module path.
+ * <p>
+ * A jar is not walked entry by entry: its central directory is read in one
+ * pass and the entries below the package are picked from it. Since a jar
+ * need not contain directory entries, the jars on the classpath of the
+ * context class loader are considered as well, even if the package cannot be
+ * found in them as a resource (see {@link #findRoots(ClassLoader, String)}).
+ * Which packages such a jar contains is read once per process and only read
+ * again when the jar changes.
+ * <p>
+ * By default, directories are walked lazily on the calling thread. If a
+ * {@link ForkJoinPool} is given, all roots and directories are scanned in
+ * parallel on the pool, each directory being a task that forks a subtask
+ * per subdirectory, and the stream is returned once the scan is complete.
+ * Instances hold no mutable state, so they can be used by several threads
+ * at the same time.
+ */
 public final class LoadClassInPackage {
+    private static final System.Logger LOGGER
+            = System.getLogger(LoadClassInPackage.class.getName());
 
-    private final Queue<FileAndName> queue = Collections.asLifoQueue(
-            new LinkedList<>());
+    /*
+     * The packages of the jars on the classpath. Without it, every scan
+     * would read the central directory of every jar on the classpath.
+     */
+    private static final Map<Path, JarPackages> jarPackages
+            = new ConcurrentHashMap<>();
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a scanner that walks directories lazily on the calling thread.
+     */
+    public LoadClassInPackage() {
+        this.pool = null;
+    }
+
+    /**
+     * Creates a scanner that scans in parallel on the given pool.
+     */
+    public LoadClassInPackage(final ForkJoinPool pool) {
+        this.pool = requireNonNull(pool);
+    }
 
     private static Class<?> loadClass(final String className) {
         try {
@@ -24,28 +82,296 @@ public final class LoadClassInPackage {
     }
 
     public Stream<Class<?>> loadClasses(final String packageName) {
-        final var classLoader = Thread.currentThread().getContextClassLoader();
+        return findClassNames(packageName).map(LoadClassInPackage::loadClass);
+    }
+
+    /**
+     * Like {@link #loadClasses(String)}, but only finds the binary names of
+     * the classes without loading them.
+     */
+    public Stream<String> findClassNames(final String packageName) {
+        final var roots = findRoots(
+                Thread.currentThread().getContextClassLoader(), packageName);
+        final var onClasspath = pool == null
+                                ? roots.stream()
+                                        .flatMap(url -> findClassNames(
+                                                url, packageName))
+                                : pool.invoke(new ScanRoots(
+                                        roots, packageName)).stream();
+
+        // An open package of a module may also be found as a resource.
+        return Stream.concat(findClassNamesInModules(packageName), onClasspath)
+                .filter(LoadClassInPackage::isClassName)
+                .distinct();
+    }
+
+    /**
+     * Finds the classpath roots of a package: the directories and jars in
+     * which the class loader finds the package as a resource, and the jars
+     * on the classpath of the class loader and its parents that contain
+     * classes in the package or its subpackages. The latter are needed
+     * because a jar without directory entries does not contain the package
+     * as a resource. Each jar is returned once, as a {@code jar:} URL of the
+     * package directory in the jar, whether or not that directory exists.
+     *
+     * @throws UncheckedIOException If the resources of the class loader or
+     * a jar on its classpath cannot be read.
+     */
+    public static List<URL> findRoots(final ClassLoader classLoader,
+            final String packageName) {
         final var path = packageName.replace('.', '/');
+        final Map<Object, URL> roots = new LinkedHashMap<>();
+        try {
+            for (final var url : Collections.list(
+                    classLoader.getResources(path))) {
+                roots.putIfAbsent(rootKey(url), url);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (final var jar : classpathJars(classLoader)) {
+            if (!roots.containsKey(jar) && containsPackage(jar, path)) {
+                roots.put(jar, jarRoot(jar, path));
+            }
+        }
+
+        return List.copyOf(roots.values());
+    }
+
+    /*
+     * Roots are told apart by the jar file for jar: URLs, so a jar found
+     * both as a resource and on the classpath is only scanned once.
+     */
+    private static Object rootKey(final URL url) {
+        if (!"jar".equals(url.getProtocol())) {
+            return url.toString();
+        }
+
+        try {
+            final var connection = (JarURLConnection) url.openConnection();
+            return toPath(connection.getJarFileURL()).toAbsolutePath()
+                    .normalize();
+        } catch (final IOException | IllegalArgumentException e) {
+            return url.toString();
+        }
+    }
+
+    private static URL jarRoot(final Path jar, final String path) {
+        try {
+            return new URL("jar:" + jar.toUri() + "!/" + path + '/');
+        } catch (final MalformedURLException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /*
+     * The packages of a jar, as paths like a/b, including the packages that
+     * only contain subpackages with classes.
+     */
+    private record JarPackages(FileTime modified, long size,
+                               Set<String> packages) {
+    }
+
+    private static boolean containsPackage(final Path jar, final String path) {
+        try {
+            final var attributes = Files.readAttributes(
+                    jar, BasicFileAttributes.class);
+            final var cached = jarPackages.get(jar);
+            if (cached != null
+                    && cached.modified().equals(attributes.lastModifiedTime())
+                    && cached.size() == attributes.size()) {
+                return cached.packages().contains(path);
+            }
+
+            final var read = new JarPackages(attributes.lastModifiedTime(),
+                                             attributes.size(),
+                                             readPackages(jar));
+            jarPackages.put(jar, read);
+            return read.packages().contains(path);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<String> readPackages(final Path jar)
+            throws IOException {
+        final Set<String> packages = new HashSet<>();
+        try (final var zip = new ZipFile(jar.toFile())) {
+            final var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final var name = entries.nextElement().getName();
+                if (!name.endsWith(".class")) {
+                    continue;
+                }
+
+                // Stops at the first package that is already known, its
+                // parents have been added with it.
+                var end = name.lastIndexOf('/');
+                while (end > 0 && packages.add(name.substring(0, end))) {
+                    end = name.lastIndexOf('/', end - 1);
+                }
+            }
+        }
+
+        return Set.copyOf(packages);
+    }
+
+    private static void addJar(final Set<Path> jars, final Path file) {
+        final var jar = file.toAbsolutePath().normalize();
+        if (Files.isRegularFile(jar)) {
+            jars.add(jar);
+        }
+    }
+
+    /*
+     * The application class loader is not a URLClassLoader, so its
+     * classpath is taken from the java.class.path property.
+     */
+    private static Set<Path> classpathJars(final ClassLoader classLoader) {
+        final Set<Path> jars = new LinkedHashSet<>();
+        final var systemClassLoader = ClassLoader.getSystemClassLoader();
+        for (var loader = classLoader; loader != null;
+             loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader urlClassLoader) {
+                for (final var url : urlClassLoader.getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        try {
+                            addJar(jars, toPath(url));
+                        } catch (final IllegalArgumentException e) {
+                            // Not a path on the default file system.
+                        }
+                    }
+                }
+            }
 
-        final Enumeration<URL> resources;
+            if (loader == systemClassLoader) {
+                final var classPath = System.getProperty("java.class.path",
+                                                         "");
+                for (final var entry : classPath.split(File.pathSeparator)) {
+                    if (!entry.isEmpty()) {
+                        addJar(jars, Path.of(entry));
+                    }
+                }
+            }
+        }
+
+        return jars;
+    }
+
+    private static boolean containsPackage(final ResolvedModule module,
+            final String packageName) {
+        final var subpackagePrefix = packageName + '.';
+        return module.reference()
+                .descriptor()
+                .packages()
+                .stream()
+                .anyMatch(p -> p.equals(packageName)
+                        || p.startsWith(subpackagePrefix));
+    }
+
+    private static Stream<String> findClassNamesInModules(
+            final String packageName) {
+        final var prefix = packageName.replace('.', '/') + '/';
+        return ModuleLayer.boot()
+                .configuration()
+                .modules()
+                .stream()
+                .filter(module -> containsPackage(module, packageName))
+                .flatMap(module -> {
+                    try (final var reader = module.reference().open();
+                         final var names = reader.list()) {
+                        return names.filter(name -> name.startsWith(prefix)
+                                        && name.endsWith(".class"))
+                                .map(LoadClassInPackage::toClassName)
+                                .toList()
+                                .stream();
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static boolean isClassName(final String name) {
+        // Excludes module-info and package-info.
+        return !name.endsWith("-info");
+    }
+
+    private static Stream<String> findClassNames(final URL url,
+            final String packageName) {
+        return switch (url.getProtocol()) {
+            case "file" -> findClassesLazy(
+                    new FileAndName(toPath(url).toFile(), packageName));
+            case "jar" -> findClassNamesInJar(url, packageName);
+            case "jrt" -> findClassNamesInModule(url, packageName);
+            default -> {
+                LOGGER.log(System.Logger.Level.WARNING,
+                           "Cannot scan classes at ''{0}'', skipping it.",
+                           url);
+                yield Stream.empty();
+            }
+        };
+    }
+
+    private static Path toPath(final URL url) {
+        try {
+            return Path.of(url.toURI());
+        } catch (final URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String toClassName(final String classFile) {
+        // Remove the '.class' file suffix.
+        return classFile.substring(0, classFile.length() - 6)
+                .replace('/', '.');
+    }
+
+    private static Stream<String> findClassNamesInJar(final URL url,
+            final String packageName) {
+        final Path jar;
         try {
-            resources = classLoader.getResources(path);
-        } catch (final IOException ioException) {
-            throw new RuntimeException(ioException);
+            final var connection = (JarURLConnection) url.openConnection();
+            jar = toPath(connection.getJarFileURL());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final var prefix = packageName.replace('.', '/') + '/';
+        final List<String> classNames = new ArrayList<>();
+        try (final var zip = new ZipFile(jar.toFile())) {
+            final var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final var name = entries.nextElement().getName();
+                if (name.startsWith(prefix) && name.endsWith(".class")) {
+                    classNames.add(toClassName(name));
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
 
-        return Stream.generate(
-                        () -> resources.hasMoreElements() ?
-                              resources.nextElement()
-                                                          : null)
-                .takeWhile(Objects::nonNull)
-                .map(URL::getFile)
-                .map(File::new)
-                .map(file -> new FileAndName(file, packageName))
-                .flatMap(this::findClassesLazy);
+        return classNames.stream();
     }
 
-    private Optional<FileAndName> generateClassFileAndName() {
+    private static Stream<String> findClassNamesInModule(final URL url,
+            final String packageName) {
+        final var directory = toPath(url);
+        final List<String> classNames = new ArrayList<>();
+        try (final var files = Files.walk(directory)) {
+            files.map(file -> directory.relativize(file).toString())
+                    .filter(name -> name.endsWith(".class"))
+                    .map(name -> packageName + '.' + toClassName(name))
+                    .forEach(classNames::add);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return classNames.stream();
+    }
+
+    private static Optional<FileAndName> generateClassFileAndName(
+            final Queue<FileAndName> queue) {
         FileAndName fileAndName = null;
         while (!queue.isEmpty() && (fileAndName = queue.remove()).file()
                 .isDirectory()) {
@@ -61,15 +387,87 @@ public final class LoadClassInPackage {
         return Optional.ofNullable(fileAndName);
     }
 
-    private Stream<Class<?>> findClassesLazy(final FileAndName in) {
+    private static Stream<String> findClassesLazy(final FileAndName in) {
+        final Queue<FileAndName> queue = Collections.asLifoQueue(
+                new ArrayDeque<>());
         queue.add(in);
 
-        return Stream.generate(this::generateClassFileAndName)
+        return Stream.generate(() -> generateClassFileAndName(queue))
                 .takeWhile(Optional::isPresent)
                 .map(Optional::get)
                 .filter(FileAndName::refersToClass)
-                .map(FileAndName::toClassName)
-                .map(LoadClassInPackage::loadClass);
+                .map(FileAndName::toClassName);
+    }
+
+    /*
+     * Scans all roots of a package in parallel. Directories are scanned by
+     * a ScanDirectory task each, jars and modules by a single task.
+     */
+    private static final class ScanRoots extends RecursiveTask<List<String>> {
+        private final List<URL> roots;
+        private final String packageName;
+
+        private ScanRoots(final List<URL> roots, final String packageName) {
+            this.roots = roots;
+            this.packageName = packageName;
+        }
+
+        @Override
+        protected List<String> compute() {
+            final List<ForkJoinTask<List<String>>> tasks = new ArrayList<>();
+            for (final var root : roots) {
+                tasks.add("file".equals(root.getProtocol())
+                          ? new ScanDirectory(toPath(root), packageName)
+                          : ForkJoinTask.adapt(() -> findClassNames(
+                                  root, packageName).toList()));
+            }
+
+            final List<String> classNames = new ArrayList<>();
+            for (final var task : invokeAll(tasks)) {
+                classNames.addAll(task.join());
+            }
+
+            return classNames;
+        }
+    }
+
+    private static final class ScanDirectory
+            extends RecursiveTask<List<String>> {
+        private final Path directory;
+        private final String packageName;
+
+        private ScanDirectory(final Path directory, final String packageName) {
+            this.directory = directory;
+            this.packageName = packageName;
+        }
+
+        @Override
+        protected List<String> compute() {
+            final List<String> classNames = new ArrayList<>();
+            final List<ScanDirectory> subdirectories = new ArrayList<>();
+            try (final var entries = Files.newDirectoryStream(directory)) {
+                for (final var entry : entries) {
+                    final var fileName = entry.getFileName().toString();
+                    if (Files.isDirectory(entry)) {
+                        final var subdirectory = new ScanDirectory(
+                                entry, packageName + '.' + fileName);
+                        subdirectory.fork();
+                        subdirectories.add(subdirectory);
+                    } else if (fileName.endsWith(".class")) {
+                        classNames.add(packageName + '.' + fileName.substring(
+                                0, fileName.length() - 6));
+                    }
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            for (final var subdirectory : subdirectories) {
+                classNames.addAll(subdirectory.join());
+            }
+
+            return classNames;
+        }
     }
 
     private record FileAndName(File file, String name) {
@@ -0,0 +1,33 @@
+package plugin;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class as a plugin for the {@link PluginLoader}.
+ * <p>
+ * At compile time, an annotation processor lists all annotated classes of a
+ * package in the resource {@code META-INF/plugins/<package name>}. If that
+ * index exists, the plugin loader only loads the listed classes instead of
+ * scanning the package, which is faster and also works inside a jar. The
+ * processor rejects annotated classes that cannot be plugins, i.e. classes
+ * that are not public, concrete and top-level, or lack a public zero
+ * argument constructor.
+ * <p>
+ * The annotation is optional only as long as no class of a package uses it.
+ * Once one class of a package is annotated, the package has an index, and
+ * every plugin of the package has to be annotated: the plugin loader then
+ * neither scans the package nor uses its {@link PluginCache}, so a class
+ * without the annotation is ignored even if it would be a plugin. This also
+ * applies to plugins of the package in other jars, e.g. of a third party:
+ * they are only found if they are annotated and compiled with the
+ * processor, as the indexes of all jars are merged.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Plugin {
+}
@@ -0,0 +1,235 @@
+package plugin;
+
+import dynamicClassLoader.LoadClassInPackage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Persists the class names of the plugins found by a {@link PluginLoader}
+ * scan, so the next start of the JVM can skip the scan.
+ * <p>
+ * Each entry is keyed by a fingerprint of everything the scan depends on:
+ * the Java version, the modules of the boot layer, and each classpath root
+ * of the package (see {@link LoadClassInPackage#findRoots}). A jar
+ * contributes its path, size and modification time. A directory contributes
+ * the path and modification time of the package directory and of each of
+ * its subdirectories, but not of the class files in them, so computing the
+ * fingerprint costs one directory listing per package directory and no file
+ * contents are read.
+ * <p>
+ * The modification time of a directory changes when a class file is added,
+ * removed or replaced by a new file, but not when a class file is rewritten
+ * in place. The classes of a cache entry are checked again when they are
+ * loaded, so a class that is no longer a plugin is never returned, but a
+ * class that is rewritten in place into a plugin is only found once the
+ * directory changes. The cache pays off the most for jars, which are
+ * fingerprinted exactly. If the fingerprint of an entry does not match, the
+ * package is scanned again and the entry is replaced.
+ * <p>
+ * Errors while reading or writing the cache are ignored, the plugin loader
+ * then falls back to scanning.
+ */
+public final class PluginCache {
+    /**
+     * The system property holding the cache directory. If it is set,
+     * {@link PluginLoader}s use a cache in that directory by default.
+     */
+    public static final String DIRECTORY_PROPERTY = "plugin.cache.dir";
+
+    private final Path directory;
+
+    public PluginCache(final Path directory) {
+        this.directory = requireNonNull(directory);
+    }
+
+    /**
+     * @return The cache in the directory given by the system property
+     * {@value #DIRECTORY_PROPERTY}, or an empty optional if it is not set.
+     */
+    public static Optional<PluginCache> fromSystemProperties() {
+        return Optional.ofNullable(System.getProperty(DIRECTORY_PROPERTY))
+                .map(Path::of)
+                .map(PluginCache::new);
+    }
+
+    private Path entry(final String packageName,
+            final Class<?> pluginInterface) {
+        return directory.resolve(
+                "%s-%s.plugins".formatted(packageName,
+                                          pluginInterface.getName()));
+    }
+
+    private static Path toPath(final URL url) {
+        try {
+            return Path.of(url.toURI());
+        } catch (final URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void addAttributes(final List<String> lines,
+            final Path file, final BasicFileAttributes attributes) {
+        lines.add("%s %d %d".formatted(file, attributes.size(),
+                                       attributes.lastModifiedTime()
+                                               .toMillis()));
+    }
+
+    /*
+     * Adds the modification times of a directory and its subdirectories.
+     * Class files are recognized by their name, so they are never stat'ed.
+     */
+    private static void addDirectories(final List<String> lines,
+            final File directory) throws IOException {
+        final var names = directory.list();
+        if (names == null) {
+            throw new IOException("Cannot list '%s'.".formatted(directory));
+        }
+
+        // The order of a directory listing is unspecified.
+        Arrays.sort(names);
+        lines.add("%s %d".formatted(directory, directory.lastModified()));
+        for (final var name : names) {
+            if (name.endsWith(".class")) {
+                continue;
+            }
+
+            final var file = new File(directory, name);
+            if (file.isDirectory()) {
+                addDirectories(lines, file);
+            }
+        }
+    }
+
+    private static void addRoot(final List<String> lines, final URL root)
+            throws IOException {
+        switch (root.getProtocol()) {
+            case "file" -> addDirectories(lines, toPath(root).toFile());
+            case "jar" -> {
+                final var jar = toPath(((JarURLConnection) root
+                        .openConnection()).getJarFileURL());
+                addAttributes(lines, jar, Files.readAttributes(
+                        jar, BasicFileAttributes.class));
+            }
+            default -> lines.add(root.toString());
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the classpath roots of a package.
+     *
+     * @return The fingerprint, or an empty optional if the attributes of
+     * a root cannot be read.
+     */
+    Optional<String> fingerprint(final String packageName,
+            final Class<?> pluginInterface, final ClassLoader classLoader) {
+        final List<String> lines = new ArrayList<>();
+        lines.add(Runtime.version().toString());
+        lines.add(pluginInterface.getName());
+        ModuleLayer.boot().modules().stream()
+                .map(Module::getName)
+                .sorted()
+                .forEach(lines::add);
+
+        try {
+            for (final var root : LoadClassInPackage.findRoots(
+                    classLoader, packageName)) {
+                addRoot(lines, root);
+            }
+        } catch (final IOException | UncheckedIOException
+                       | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            for (final var line : lines) {
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return Optional.of(HexFormat.of().formatHex(digest.digest()));
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256.
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * @return The cached class names of the plugins, or an empty optional
+     * if there is no entry with the given fingerprint.
+     */
+    Optional<List<String>> read(final String packageName,
+            final Class<?> pluginInterface, final String fingerprint) {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(entry(packageName, pluginInterface),
+                                       StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            return Optional.empty();
+        }
+
+        if (lines.isEmpty() || !lines.get(0).equals(fingerprint)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(List.copyOf(lines.subList(1, lines.size())));
+    }
+
+    /**
+     * Replaces the entry of the package. The entry is written to a
+     * temporary file first, so concurrent readers never see a partial
+     * entry.
+     */
+    void write(final String packageName, final Class<?> pluginInterface,
+            final String fingerprint, final Collection<String> classNames) {
+        final List<String> lines = new ArrayList<>(classNames.size() + 1);
+        lines.add(fingerprint);
+        lines.addAll(classNames);
+
+        try {
+            Files.createDirectories(directory);
+            final var entry = entry(packageName, pluginInterface);
+            final var temporary = Files.createTempFile(
+                    directory, entry.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, lines, StandardCharsets.UTF_8);
+                try {
+                    Files.move(temporary, entry,
+                               StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, entry,
+                               StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (final IOException e) {
+            // The cache is only an optimization.
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PluginCache{directory=%s}".formatted(directory);
+    }
+}
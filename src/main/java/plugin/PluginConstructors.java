@@ -0,0 +1,113 @@
+package plugin;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+/**
+ * Turns the zero argument constructor of a plugin into a {@link Supplier}.
+ * <p>
+ * {@link #supplier(Constructor)} spins a {@code Supplier} class that calls
+ * the constructor directly, just like {@code Plugin::new} does, so a call to
+ * {@code get()} costs as much as a {@code new}. The class is defined by
+ * {@link LambdaMetafactory} next to the plugin, in the plugin's class loader.
+ * This needs full private access to the plugin, which is only available if
+ * the plugin is in the same module as this class, e.g. if both are in the
+ * unnamed module of the same class loader. Otherwise, the supplier invokes a
+ * method handle of the constructor, which is created once per supplier.
+ * <p>
+ * Unlike the reflective supplier, both let an unchecked exception thrown by
+ * the constructor propagate unwrapped.
+ */
+final class PluginConstructors {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType SUPPLIER_TYPE
+            = MethodType.methodType(Supplier.class);
+    private static final MethodType GET_TYPE
+            = MethodType.methodType(Object.class);
+
+    private PluginConstructors() {
+    }
+
+    static Supplier<?> supplier(final Constructor<?> zeroArgumentConstructor) {
+        try {
+            return lambda(zeroArgumentConstructor);
+        } catch (final IllegalAccessException | LambdaConversionException e) {
+            return methodHandle(zeroArgumentConstructor);
+        }
+    }
+
+    /**
+     * @throws IllegalAccessException If the package of the plugin is not
+     * open to this module.
+     * @throws LambdaConversionException If the plugin is in another module.
+     */
+    static Supplier<?> lambda(final Constructor<?> zeroArgumentConstructor)
+            throws IllegalAccessException, LambdaConversionException {
+        final var pluginClass = zeroArgumentConstructor.getDeclaringClass();
+        /*
+         * The supplier class is defined in the lookup class' package. Using
+         * the plugin itself as lookup class makes the supplier class visible
+         * to the plugin's class loader, which may not be ours.
+         */
+        final var lookup = MethodHandles.privateLookupIn(pluginClass, LOOKUP);
+        final var constructor = lookup.unreflectConstructor(
+                zeroArgumentConstructor);
+        final var callSite = LambdaMetafactory.metafactory(
+                lookup, "get", SUPPLIER_TYPE, GET_TYPE, constructor,
+                MethodType.methodType(pluginClass));
+        try {
+            return (Supplier<?>) callSite.getTarget().invokeExact();
+        } catch (final Throwable e) {
+            // The call site only allocates the (non-capturing) supplier.
+            throw new AssertionError(e);
+        }
+    }
+
+    static Supplier<?> methodHandle(
+            final Constructor<?> zeroArgumentConstructor) {
+        final MethodHandle constructor;
+        try {
+            constructor = LOOKUP.unreflectConstructor(zeroArgumentConstructor)
+                    .asType(GET_TYPE);
+        } catch (final IllegalAccessException e) {
+            // Plugins have public constructors.
+            throw new AssertionError(e);
+        }
+
+        return () -> {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    static Supplier<?> reflective(final Constructor<?> zeroArgumentConstructor) {
+        return () -> construct(zeroArgumentConstructor);
+    }
+
+    private static Object construct(
+            final Constructor<?> zeroArgumentConstructor) {
+        /*
+         * We know that the constructed class has a zero argument constructor
+         * and that the class is concrete, so the only exception that could
+         * be thrown here, is an exception thrown by the called constructor.
+         */
+        try {
+            return zeroArgumentConstructor.newInstance();
+        } catch (final InvocationTargetException e) {
+            throw new RuntimeException(e);
+        } catch (final InstantiationException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package plugin;
 
+import dynamicClassLoader.ClassHierarchy;
 import dynamicClassLoader.LoadClassInPackage;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class can be used to implement a plugin architecture, that is it can
@@ -20,16 +31,61 @@ import java.util.stream.Collectors;
  * Plugins are concrete top-leve classes that reside in a specific package,
  * implement a given interface (or extend a given class) and have a * zero
  * argument constructor.
+ * <p>
+ * If the package has a plugin index (see {@link Plugin}), only the classes
+ * listed in the index are considered and the package is not scanned at all.
+ * Once an index exists, a class of the package that is not annotated with
+ * {@code @Plugin} is therefore ignored, even if it would otherwise be a
+ * plugin; the loader cannot tell this apart from an index that is out of
+ * date without scanning, so neither a {@link PluginCache} nor a scan is
+ * used. Whenever an index decides the result, this is logged at level
+ * {@code DEBUG}. A listed class that is not a plugin is skipped, a listed
+ * class that does not exist is an error.
+ * <p>
+ * Without an index, the package is scanned and the class file of each class
+ * is checked before the class is loaded (see {@link ClassHierarchy}), so
+ * only likely plugins are loaded. No class is initialized before it is
+ * constructed.
+ * <p>
+ * The result of a scan can be persisted in a {@link PluginCache}, so later
+ * runs of the JVM only load the cached plugins, as long as the classpath
+ * roots of the package are unchanged.
+ * <p>
+ * The returned suppliers call the constructors of the plugins directly, like
+ * a {@code Plugin::new} method reference, without reflection.
  */
 public final class PluginLoader<T> {
+    /**
+     * The directory of the plugin indexes on the classpath. The index of a
+     * package is the resource {@code INDEX_DIRECTORY + packageName}.
+     */
+    public static final String INDEX_DIRECTORY = "META-INF/plugins/";
+
+    private static final System.Logger LOGGER
+            = System.getLogger(PluginLoader.class.getName());
+
     private final String packageName;
     private final Class<T> pluginInterface;
+    private final PluginCache cache;
 
 
+    /**
+     * Creates a plugin loader that uses the cache in the directory given by
+     * the system property {@value PluginCache#DIRECTORY_PROPERTY}, if it is
+     * set.
+     */
     public PluginLoader(final String packageName,
             final Class<T> pluginInterface) {
         this.packageName = Objects.requireNonNull(packageName);
         this.pluginInterface = Objects.requireNonNull(pluginInterface);
+        this.cache = PluginCache.fromSystemProperties().orElse(null);
+    }
+
+    public PluginLoader(final String packageName,
+            final Class<T> pluginInterface, final PluginCache cache) {
+        this.packageName = Objects.requireNonNull(packageName);
+        this.pluginInterface = Objects.requireNonNull(pluginInterface);
+        this.cache = Objects.requireNonNull(cache);
     }
 
     private static Optional<Constructor<?>> getZeroArgumentConstructor(
@@ -39,20 +95,168 @@ public final class PluginLoader<T> {
                 .findAny();
     }
 
-    private static Object construct(
-            final Constructor<?> zeroArgumentConstructor) {
-        /*
-         * We know that the constructed class has a zero argument constructor
-         * and that the class is concrete, so the only exception that could
-         * be thrown here, is an exception thrown by the called constructor.
-         */
+    private static Set<String> readIndex(final URL index) {
+        try (final var reader = new BufferedReader(new InputStreamReader(
+                index.openStream(), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The names of the classes listed in the plugin indexes of the
+     * package, or an empty optional if there is no index.
+     */
+    private Optional<Set<String>> readIndexes(final ClassLoader classLoader) {
+        final Set<String> classNames = new LinkedHashSet<>();
+        final Iterable<URL> indexes;
+        try {
+            indexes = Collections.list(
+                    classLoader.getResources(INDEX_DIRECTORY + packageName));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var found = false;
+        for (final var index : indexes) {
+            found = true;
+            classNames.addAll(readIndex(index));
+        }
+
+        return found ? Optional.of(classNames) : Optional.empty();
+    }
+
+    private static Class<?> loadIndexedClass(final String className,
+            final ClassLoader classLoader) {
+        try {
+            // Do not initialize the class, it might not be a plugin after all.
+            return Class.forName(className, false, classLoader);
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    ("The plugin index lists the class '%s', but it does not "
+                            + "exist.").formatted(className), e);
+        }
+    }
+
+    /*
+     * Checks the class file of a class before it is loaded. If the class file
+     * cannot be read, the class is loaded and checked reflectively instead.
+     */
+    private boolean isCandidate(final ClassHierarchy hierarchy,
+            final String className) {
+        try {
+            return hierarchy.header(className)
+                    .map(header -> header.isConcreteClass()
+                            && header.hasPublicZeroArgumentConstructor()
+                            && hierarchy.mayBeSubtypeOf(
+                                    className, pluginInterface.getName()))
+                    .orElse(true);
+        } catch (final UncheckedIOException | IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static Class<?> loadScannedClass(final String className,
+            final ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (final ClassNotFoundException e) {
+            throw new AssertionError(
+                    "Could not load class '%s'.".formatted(className), e);
+        }
+    }
+
+    private Stream<Class<?>> scanClasses(final ClassLoader classLoader) {
+        final var hierarchy = new ClassHierarchy(classLoader);
+        return new LoadClassInPackage()
+                .findClassNames(packageName)
+                .filter(className -> isCandidate(hierarchy, className))
+                .map(className -> loadScannedClass(className, classLoader));
+    }
+
+    private static Optional<Class<?>> loadCachedClass(final String className,
+            final ClassLoader classLoader) {
         try {
-            return zeroArgumentConstructor.newInstance();
-        } catch (final InvocationTargetException e) {
-            throw new RuntimeException(e);
-        } catch (final InstantiationException | IllegalAccessException e) {
-            throw new AssertionError(e);
+            return Optional.of(Class.forName(className, false, classLoader));
+        } catch (final ClassNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    /*
+     * Loads the classes of a cache entry, or returns an empty optional if
+     * one of them no longer exists, i.e. if the entry is stale.
+     */
+    private static Optional<List<Class<?>>> loadCachedClasses(
+            final List<String> classNames, final ClassLoader classLoader) {
+        final List<Class<?>> classes = new ArrayList<>(classNames.size());
+        for (final var className : classNames) {
+            final var clazz = loadCachedClass(className, classLoader);
+            if (clazz.isEmpty()) {
+                return Optional.empty();
+            }
+
+            classes.add(clazz.get());
+        }
+
+        return Optional.of(classes);
+    }
+
+    private List<Class<?>> plugins(final Stream<Class<?>> classes) {
+        return classes
+                .filter(clazz -> !Modifier.isAbstract(clazz.getModifiers()))
+                .filter(pluginInterface::isAssignableFrom)
+                .filter(clazz -> getZeroArgumentConstructor(clazz).isPresent())
+                .toList();
+    }
+
+    private List<Class<?>> scanPlugins(final ClassLoader classLoader) {
+        if (cache == null) {
+            return plugins(scanClasses(classLoader));
+        }
+
+        final var fingerprint = cache.fingerprint(packageName,
+                                                  pluginInterface,
+                                                  classLoader);
+        if (fingerprint.isEmpty()) {
+            return plugins(scanClasses(classLoader));
+        }
+
+        final var cached = cache.read(packageName, pluginInterface,
+                                      fingerprint.get())
+                .flatMap(classNames -> loadCachedClasses(classNames,
+                                                         classLoader));
+        if (cached.isPresent()) {
+            // Checked again, in case the entry was edited.
+            return plugins(cached.get().stream());
         }
+
+        final var plugins = plugins(scanClasses(classLoader));
+        cache.write(packageName, pluginInterface, fingerprint.get(),
+                    plugins.stream().map(Class::getName).toList());
+        return plugins;
+    }
+
+    private List<Class<?>> loadPlugins() {
+        final var classLoader = Thread.currentThread().getContextClassLoader();
+        final var indexed = readIndexes(classLoader);
+        if (indexed.isEmpty()) {
+            return scanPlugins(classLoader);
+        }
+
+        final var plugins = plugins(indexed.get().stream()
+                .map(className -> loadIndexedClass(className, classLoader)));
+        LOGGER.log(System.Logger.Level.DEBUG,
+                   "The plugin index of package ''{0}'' lists {1} classes, "
+                           + "{2} of them are plugins. The package is not "
+                           + "scanned, so classes without @Plugin are "
+                           + "ignored.",
+                   packageName, indexed.get().size(), plugins.size());
+        return plugins;
     }
 
     public Set<Supplier<T>> getConstructors() {
@@ -61,14 +265,11 @@ public final class PluginLoader<T> {
          * from a class U, where a reference to an object of U can be assigned
          * to a reference to an object of type T.
          */
-        return new LoadClassInPackage().loadClasses(packageName)
-                .filter(clazz -> !Modifier.isAbstract(clazz.getModifiers()))
-                .filter(pluginInterface::isAssignableFrom)
+        return loadPlugins()
+                .stream()
                 .map(PluginLoader::getZeroArgumentConstructor)
-                .filter(Optional::isPresent)
                 .map(Optional::get)
-                .map(constructor -> (Supplier<?>) (() -> construct(
-                        constructor)))
+                .map(PluginConstructors::supplier)
                 .map(constructor -> (Supplier<T>) constructor)
                 .collect(Collectors.toSet());
     }
@@ -22,7 +22,7 @@ public final class LazyInitialize<T> {
 
     public T get() {
         if (instance == null) {
-            synchronized (LazyInitialize.class) {
+            synchronized (this) {
                 if (instance == null) {
                     instance = constructor.get();
                     if (instance == null) {
@@ -0,0 +1,137 @@
+package plugin.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes the plugin index read by {@code plugin.PluginLoader}: for every
+ * package containing classes annotated with {@code plugin.Plugin}, the
+ * resource {@code META-INF/plugins/<package name>} lists the binary names
+ * of those classes, one per line.
+ */
+@SupportedAnnotationTypes(PluginIndexProcessor.PLUGIN_ANNOTATION)
+public final class PluginIndexProcessor extends AbstractProcessor {
+
+    static final String PLUGIN_ANNOTATION = "plugin.Plugin";
+
+    // Has to match PluginLoader.INDEX_DIRECTORY.
+    private static final String INDEX_DIRECTORY = "META-INF/plugins/";
+
+    private final Map<String, Set<String>> pluginsByPackage = new TreeMap<>();
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    private void error(final String message, final Element element) {
+        processingEnv.getMessager()
+                .printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static boolean hasPublicZeroArgumentConstructor(
+            final TypeElement type) {
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(
+                type.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PUBLIC)
+                    && constructor.getParameters().isEmpty()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isValidPlugin(final TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            error("Only classes can be plugins.", type);
+            return false;
+        }
+
+        if (type.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            error("A plugin has to be a top-level class.", type);
+            return false;
+        }
+
+        final var modifiers = type.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC)
+                || modifiers.contains(Modifier.ABSTRACT)) {
+            error("A plugin has to be a public, concrete class.", type);
+            return false;
+        }
+
+        if (!hasPublicZeroArgumentConstructor(type)) {
+            error("A plugin needs a public zero argument constructor.", type);
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+            final RoundEnvironment roundEnv) {
+        for (final var annotation : annotations) {
+            for (final var element : ElementFilter.typesIn(
+                    roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (isValidPlugin(element)) {
+                    final var packageName = processingEnv.getElementUtils()
+                            .getPackageOf(element)
+                            .getQualifiedName()
+                            .toString();
+                    final var binaryName = processingEnv.getElementUtils()
+                            .getBinaryName(element)
+                            .toString();
+                    pluginsByPackage.computeIfAbsent(
+                            packageName, p -> new TreeSet<>()).add(binaryName);
+                    originatingElements.add(element);
+                }
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+
+        return true;
+    }
+
+    private void writeIndex() {
+        final var originating = originatingElements.toArray(new Element[0]);
+        pluginsByPackage.forEach((packageName, plugins) -> {
+            try {
+                final var resource = processingEnv.getFiler().createResource(
+                        StandardLocation.CLASS_OUTPUT, "",
+                        INDEX_DIRECTORY + packageName, originating);
+                try (final Writer writer = resource.openWriter()) {
+                    for (final var plugin : plugins) {
+                        writer.write(plugin);
+                        writer.write('\n');
+                    }
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -1,14 +1,40 @@
 package configuration;
 
+import deserilization.Deserializer;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static configuration.ConfigBase.ConfigBuilder;
+import static configuration.ConfigFromStrings.Loading;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ConfigTest {
 
@@ -20,8 +46,8 @@ public class ConfigTest {
         properties.load(new FileInputStream(
                 resources.resolve("config.properties").toFile()));
 
-        final var intKey = new ConfigurationKey("/test/int");
-        final var stringKey = new ConfigurationKey("test", "string");
+        final var intKey = ConfigurationKey.of("/test/int");
+        final var stringKey = ConfigurationKey.ofPieces("test", "string");
         final var builder = ConfigBuilder.create();
         builder.add(intKey, Integer.class, 1);
         builder.add(stringKey, String.class, "hello");
@@ -31,4 +57,502 @@ public class ConfigTest {
         assertEquals(1, config.getValue(intKey, Integer.class));
         assertEquals("file", config.getValue(stringKey, String.class));
     }
+
+    @Test
+    void compiledConfig() throws IOException {
+        final var properties = new Properties();
+        properties.load(new FileInputStream(
+                resources.resolve("config.properties").toFile()));
+
+        final var intKey = ConfigurationKey.of("/test/int");
+        final var stringKey = ConfigurationKey.ofPieces("test", "string");
+        final var builder = ConfigBuilder.create();
+        builder.add(intKey, Integer.class, 1);
+        builder.add(stringKey, String.class, "hello");
+        final var config = CompiledConfig.compile(
+                new ConfigFromProperties(builder.build(), properties));
+
+        final var intSlot = config.slot(intKey);
+        final var stringSlot = config.slot(stringKey);
+        assertEquals(1, config.getInt(intSlot));
+        assertEquals("file", config.getValue(stringSlot, String.class));
+        assertEquals("file", config.getValue(stringKey, String.class));
+        assertThrows(IllegalArgumentException.class,
+                     () -> config.getLong(intSlot));
+    }
+
+    @Test
+    void typedKeys() throws IOException {
+        final var properties = new Properties();
+        properties.load(new FileInputStream(
+                resources.resolve("config.properties").toFile()));
+        properties.setProperty("test_long", "42");
+
+        final var intKey = TypedConfigurationKey.ofInt("/test/int");
+        final var longKey = TypedConfigurationKey.ofLong("/test/long");
+        final var config = new ConfigFromProperties(ConfigBuilder.create()
+                .add(intKey, 1)
+                .add(longKey, 2L)
+                .build(), properties);
+
+        assertEquals(1, config.getInt(intKey));
+        assertEquals(42L, config.getLong(longKey));
+        assertThrows(IllegalArgumentException.class, () -> config.getLong(
+                new TypedConfigurationKey.OfLong(intKey.key())));
+    }
+
+    private static void replace(final Path file, final String content)
+            throws IOException {
+        // Replace the file atomically, so the watcher never sees it empty.
+        final var next = file.resolveSibling("next.properties");
+        Files.writeString(next, content);
+        Files.move(next, file, StandardCopyOption.ATOMIC_MOVE,
+                   StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Test
+    void reloadingConfig(@TempDir final Path dir)
+            throws IOException, InterruptedException {
+        final var file = dir.resolve("config.properties");
+        Files.writeString(file, "test_int=2\n");
+
+        final var intKey = TypedConfigurationKey.ofInt("/test/int");
+        final var base = ConfigBuilder.create().add(intKey, 1).build();
+        try (final var config = new ReloadingConfig(base, file)) {
+            final var changes = new CopyOnWriteArrayList<Object>();
+            final var changed = new CountDownLatch(1);
+            config.addListener(intKey.key(), (key, oldValue, newValue) -> {
+                changes.add(newValue);
+                changed.countDown();
+            });
+            assertEquals(2, config.getInt(intKey));
+
+            replace(file, "test_int=3\n");
+            config.reload();
+
+            /*
+             * The watcher may have published the change first, and then
+             * notifies the listener on its own thread.
+             */
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+            assertEquals(3, config.getInt(intKey));
+            assertEquals(List.of(3), changes);
+            assertTrue(config.getReloadCount() >= 1);
+        }
+    }
+
+    @Test
+    void reloadingConfigWatchesTheFile(@TempDir final Path dir)
+            throws IOException, InterruptedException {
+        final var file = dir.resolve("config.properties");
+        Files.writeString(file, "test_int=2\n");
+
+        final var intKey = TypedConfigurationKey.ofInt("/test/int");
+        final var base = ConfigBuilder.create().add(intKey, 1).build();
+        try (final var config = new ReloadingConfig(base, file)) {
+            final var changed = new CountDownLatch(1);
+            config.addListener(intKey.key(),
+                               (key, oldValue, newValue) -> changed
+                                       .countDown());
+            final var failures = new CopyOnWriteArrayList<Exception>();
+            final var failed = new CountDownLatch(1);
+            config.onReloadFailure(e -> {
+                failures.add(e);
+                failed.countDown();
+            });
+
+            replace(file, "test_int=3\n");
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+            assertEquals(3, config.getInt(intKey));
+
+            replace(file, "test_int=three\n");
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+            assertEquals(3, config.getInt(intKey));
+            assertEquals(1, failures.size());
+        }
+    }
+
+    @Test
+    void listenersAreCalledOutsideTheLock(@TempDir final Path dir)
+            throws IOException, InterruptedException {
+        final var file = dir.resolve("config.properties");
+        Files.writeString(file, "test_int=2\n");
+
+        final var intKey = TypedConfigurationKey.ofInt("/test/int");
+        final var base = ConfigBuilder.create().add(intKey, 1).build();
+        try (final var config = new ReloadingConfig(base, file)) {
+            final var reloadedMeanwhile = new CountDownLatch(1);
+            config.addListener(intKey.key(), (key, oldValue, newValue) -> {
+                // A reload on another thread must not wait for this listener.
+                final var other = new Thread(() -> {
+                    config.reload();
+                    reloadedMeanwhile.countDown();
+                });
+                other.start();
+                try {
+                    reloadedMeanwhile.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            Files.writeString(file, "test_int=3\n");
+            config.reload();
+            assertEquals(0, reloadedMeanwhile.getCount());
+        }
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheOthers(@TempDir final Path dir)
+            throws IOException, InterruptedException {
+        final var file = dir.resolve("config.properties");
+        Files.writeString(file, "test_int=2\ntest_long=2\n");
+
+        final var intKey = TypedConfigurationKey.ofInt("/test/int");
+        final var longKey = TypedConfigurationKey.ofLong("/test/long");
+        final var base = ConfigBuilder.create()
+                .add(intKey, 1)
+                .add(longKey, 1L)
+                .build();
+        try (final var config = new ReloadingConfig(base, file)) {
+            final var listenerFailures = new CopyOnWriteArrayList<Exception>();
+            final var reloadFailures = new CopyOnWriteArrayList<Exception>();
+            config.onListenerFailure(listenerFailures::add);
+            config.onReloadFailure(reloadFailures::add);
+
+            final var notified = new CountDownLatch(3);
+            final ReloadingConfig.ChangeListener failing = (k, o, n) -> {
+                throw new IllegalStateException("Listener failed.");
+            };
+            final ReloadingConfig.ChangeListener counting
+                    = (k, o, n) -> notified.countDown();
+            config.addListener(intKey.key(), failing);
+            config.addListener(intKey.key(), counting);
+            config.addListener(longKey.key(), failing);
+            config.addListener(longKey.key(), counting);
+            config.addListener(longKey.key(), counting);
+
+            replace(file, "test_int=3\ntest_long=3\n");
+            config.reload();
+
+            assertTrue(notified.await(10, TimeUnit.SECONDS));
+            assertEquals(3, config.getInt(intKey));
+            assertEquals(3L, config.getLong(longKey));
+            assertEquals(2, listenerFailures.size());
+            assertEquals(List.of(), reloadFailures);
+        }
+    }
+
+    @Test
+    void subtree() {
+        final var size = ConfigurationKey.of("/db/pool/size");
+        final var timeout = ConfigurationKey.of("/db/pool/timeout");
+        final var poolsize = ConfigurationKey.of("/db/poolsize");
+        final var config = ConfigBuilder.create()
+                .add(size, Integer.class, 8)
+                .add(timeout, Integer.class, 30)
+                .add(poolsize, Integer.class, 4)
+                .build();
+
+        final var pool = config.subtree("/db/pool");
+        assertEquals(Set.of(size, timeout), pool.getKeys());
+        assertEquals(8, pool.getValue(size, Integer.class));
+        assertThrows(NoSuchElementException.class,
+                     () -> pool.getValue(poolsize));
+        assertEquals(Set.of(size, timeout, poolsize),
+                     config.getKeysUnder(ConfigurationKey.of("/db")));
+    }
+
+    @Test
+    void internedKeys() {
+        final var key = ConfigurationKey.of("/test/int");
+        assertSame(key, ConfigurationKey.of("/test/int"));
+        assertSame(key, ConfigurationKey.ofPieces("test", "int"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConfigurationKey.of("test/int"));
+    }
+
+    @Test
+    void canonicalKeysAcrossThreads()
+            throws InterruptedException, ExecutionException {
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            final var tasks = new ArrayList<Callable<ConfigurationKey>>();
+            for (int i = 0; i < 64; ++i) {
+                final var path = "/threads/key" + i % 4;
+                tasks.add(() -> ConfigurationKey.of(path));
+            }
+
+            for (final var future : executor.invokeAll(tasks)) {
+                final var key = future.get();
+                assertSame(ConfigurationKey.of(key.toString()), key);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void keyValidationAndPieces() {
+        final var key = ConfigurationKey.of("/a/B/c3");
+        assertEquals(List.of("a", "B", "c3"), key.pieces());
+        assertSame(key.pieces(), key.pieces());
+        assertThrows(IndexOutOfBoundsException.class,
+                     () -> key.pieces().get(3));
+        for (final var invalid : List.of("", "/", "a", "/a/", "//a", "/a//b",
+                                         "/a-b", "/a b")) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> ConfigurationKey.of(invalid));
+        }
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConfigurationKey.ofPieces("a", ""));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConfigurationKey.of("a/b"));
+    }
+
+    @Test
+    void piecesCannotContainSeparators() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConfigurationKey.ofPieces("a/b"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> ConfigurationKey.ofPieces(List.of("a", "b/c")));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void constructedKeysEqualCanonicalKeys() {
+        final var key = ConfigurationKey.of("/test/int");
+        final var constructed = new ConfigurationKey("/test/int");
+        assertNotSame(key, constructed);
+        assertEquals(key, constructed);
+        assertEquals(constructed, key);
+        assertEquals(key.hashCode(), constructed.hashCode());
+        assertEquals(key, new ConfigurationKey("test", "int"));
+        assertEquals(key, new ConfigurationKey(List.of("test", "int")));
+        assertNotEquals(key, new ConfigurationKey("/test/long"));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ConfigurationKey("a/b"));
+
+        final var config = ConfigBuilder.create()
+                .add(constructed, Integer.class, 1)
+                .build();
+        assertEquals(1, config.getValue(key));
+    }
+
+    private static Set<ConfigurationKey> withMissingKeys(
+            final Set<ConfigurationKey> keys) {
+        final var result = new HashSet<>(keys);
+        for (int i = 0; i < 10; ++i) {
+            result.add(ConfigurationKey.of("/test/missing" + i));
+        }
+
+        return result;
+    }
+
+    @Test
+    void lookupAllFromProperties() {
+        final var defaults = new Properties();
+        defaults.setProperty("test_default", "d");
+        final var properties = new Properties(defaults);
+        properties.setProperty("test_a", "1");
+        properties.setProperty("other_1", "x");
+        properties.setProperty("other_2", "y");
+
+        final var a = ConfigurationKey.of("/test/a");
+        final var fromDefaults = ConfigurationKey.of("/test/default");
+        final var keys = Set.of(a, fromDefaults,
+                                ConfigurationKey.of("/test/missing"));
+        final var expected = Map.of(a, "1", fromDefaults, "d");
+
+        // Fewer keys than properties, each key is looked up.
+        assertEquals(expected, ConfigFromProperties.lookupAll(
+                keys, properties));
+        // More keys than properties, the properties are iterated.
+        assertEquals(expected, ConfigFromProperties.lookupAll(
+                withMissingKeys(keys), properties));
+    }
+
+    @Test
+    void lookupAllFromEnv() {
+        final var env = Map.of("TEST_A", "1", "OTHER_1", "x", "OTHER_2", "y");
+
+        final var lower = ConfigurationKey.of("/test/a");
+        final var upper = ConfigurationKey.of("/TEST/A");
+        final var keys = Set.of(lower, upper,
+                                ConfigurationKey.of("/test/missing"));
+        final var expected = Map.of(lower, "1", upper, "1");
+
+        assertEquals(expected, ConfigFromEnv.lookupAllEnv(keys, env));
+        assertEquals(expected, ConfigFromEnv.lookupAllEnv(
+                withMissingKeys(keys), env));
+    }
+
+    @Test
+    void bulkLookupOfSingleLookups() {
+        final var present = ConfigurationKey.of("/test/present");
+        final var absent = ConfigurationKey.of("/test/absent");
+        final var lookup = BulkLookup.of(
+                key -> key == present ? Optional.of("1") : Optional.empty());
+
+        assertEquals(Map.of(present, "1"),
+                     lookup.lookupAll(Set.of(present, absent)));
+    }
+
+    @Test
+    void parallelLoadReportsAllFailures() {
+        final var good = ConfigurationKey.of("/test/good");
+        final var bad1 = ConfigurationKey.of("/test/bad1");
+        final var bad2 = ConfigurationKey.of("/test/bad2");
+        final var base = ConfigBuilder.create()
+                .add(good, Integer.class, 0)
+                .add(bad1, Integer.class, 0)
+                .add(bad2, Integer.class, 0)
+                .build();
+        final var properties = new Properties();
+        properties.setProperty("test_good", "1");
+        properties.setProperty("test_bad1", "one");
+        properties.setProperty("test_bad2", "two");
+
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            final var exception = assertThrows(
+                    ConfigLoadException.class,
+                    () -> new ConfigFromProperties(base, properties, executor));
+            assertEquals(Set.of(bad1, bad2), exception.getFailures().keySet());
+
+            properties.setProperty("test_bad1", "2");
+            properties.setProperty("test_bad2", "3");
+            final var config = new ConfigFromProperties(
+                    base, properties, executor);
+            assertEquals(3, config.getValue(bad2, Integer.class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void mappedConfig(@TempDir final Path dir) throws IOException {
+        final var intKey = TypedConfigurationKey.ofInt("/test/int");
+        final var stringKey = ConfigurationKey.of("/test/string");
+        final var keyKey = ConfigurationKey.of("/test/key");
+        final var config = ConfigBuilder.create()
+                .add(intKey, 7)
+                .add(stringKey, String.class, "hello")
+                .add(keyKey, ConfigurationKey.class,
+                     ConfigurationKey.of("/other/key"))
+                .build();
+
+        final var file = dir.resolve("config.bin");
+        MappedConfig.write(config, file);
+        final var mapped = MappedConfig.open(file);
+
+        assertEquals(7, mapped.getInt(intKey));
+        assertEquals("hello", mapped.getValue(stringKey, String.class));
+        assertEquals(ConfigurationKey.of("/other/key"),
+                     mapped.getValue(keyKey, ConfigurationKey.class));
+        assertEquals(config.getKeys(), mapped.getKeys());
+        assertThrows(NoSuchElementException.class, () -> mapped.getValue(
+                ConfigurationKey.of("/test/missing")));
+    }
+
+    @Test
+    void mappedConfigKeyLengths(@TempDir final Path dir) throws IOException {
+        // Longer than a signed short, but still fits into an unsigned one.
+        final var longKey = ConfigurationKey.of("/" + "a".repeat(40_000));
+        final var file = dir.resolve("config.bin");
+        MappedConfig.write(ConfigBuilder.create()
+                                   .add(longKey, Integer.class, 1)
+                                   .build(), file);
+        assertEquals(1, MappedConfig.open(file).getValue(longKey));
+
+        final var tooLong = ConfigurationKey.of("/" + "a".repeat(70_000));
+        final var config = ConfigBuilder.create()
+                .add(tooLong, Integer.class, 1)
+                .build();
+        assertThrows(IllegalArgumentException.class,
+                     () -> MappedConfig.write(config, file));
+    }
+
+    @Test
+    void mappedConfigRejectsCorruptFiles(@TempDir final Path dir)
+            throws IOException {
+        final var file = dir.resolve("config.bin");
+        MappedConfig.write(ConfigBuilder.create()
+                                   .add(ConfigurationKey.of("/test/int"),
+                                        Integer.class, 1)
+                                   .add(ConfigurationKey.of("/test/string"),
+                                        String.class, "hello")
+                                   .build(), file);
+        final var valid = Files.readAllBytes(file);
+
+        // The table is cut off.
+        Files.write(file, Arrays.copyOf(valid, 20));
+        assertThrows(IllegalArgumentException.class,
+                     () -> MappedConfig.open(file));
+
+        // The first value points behind the end of the file. Entries are
+        // only checked when they are first visited.
+        final var outOfBounds = valid.clone();
+        ByteBuffer.wrap(outOfBounds)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(12, valid.length);
+        Files.write(file, outOfBounds);
+        final var corrupt = MappedConfig.open(file);
+        assertThrows(IllegalArgumentException.class,
+                     () -> corrupt.getValue(ConfigurationKey.of("/test/int")));
+
+        // The header declares more keys than there are.
+        final var tooManyKeys = valid.clone();
+        ByteBuffer.wrap(tooManyKeys)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(4, Integer.MAX_VALUE);
+        Files.write(file, tooManyKeys);
+        assertThrows(IllegalArgumentException.class,
+                     () -> MappedConfig.open(file));
+    }
+
+    @Test
+    void lazyLoading() {
+        final var good = ConfigurationKey.of("/test/good");
+        final var bad = ConfigurationKey.of("/test/bad");
+        final var base = ConfigBuilder.create()
+                .add(good, Integer.class, 0)
+                .add(bad, Integer.class, 0)
+                .build();
+        final var properties = new Properties();
+        properties.setProperty("test_good", "1");
+        properties.setProperty("test_bad", "one");
+
+        final var config = new ConfigFromProperties(
+                base, properties, Loading.LAZY);
+        assertEquals(1, config.getValue(good, Integer.class));
+        assertSame(config.getValue(good), config.getValue(good));
+        assertThrows(Deserializer.DeserializeClassException.class,
+                     () -> config.getValue(bad));
+    }
+
+    @Test
+    void instrumentedConfig() {
+        final var intKey = TypedConfigurationKey.ofInt("/test/int");
+        final var stringKey = ConfigurationKey.of("/test/string");
+        final var properties = new Properties();
+        properties.setProperty("test_int", "2");
+        final var config = new InstrumentedConfig(new ConfigFromProperties(
+                ConfigBuilder.create()
+                        .add(intKey, 1)
+                        .add(stringKey, String.class, "hello")
+                        .build(), properties));
+
+        for (int i = 0; i < 3; ++i) {
+            config.getInt(intKey);
+        }
+        config.getValue(stringKey);
+
+        final var report = config.report();
+        assertEquals(2, report.size());
+        assertEquals(intKey.key(), report.get(0).key());
+        assertEquals(3, report.get(0).reads());
+        assertEquals("ConfigFromProperties", report.get(0).source());
+        assertEquals("ConfigBase", report.get(1).source());
+    }
 }
@@ -0,0 +1,164 @@
+package deserilization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static deserilization.Deserializer.DeserializeClassException;
+import static deserilization.Deserializer.NoDeserializerForClassException;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompositeDeserializersTest {
+
+    private final Deserializer deserializer = new Deserializer();
+
+    @Test
+    public void nestedLists() {
+        final var lists = deserializer.deserialize(
+                new TypeToken<List<List<Integer>>>() {}, "[[1, 2], [], [3]]");
+        assertEquals(List.of(List.of(1, 2), List.of(), List.of(3)), lists);
+    }
+
+    @Test
+    public void nestedMapsAndSets() {
+        final var map = deserializer.deserialize(
+                new TypeToken<Map<String, Set<Long>>>() {},
+                "{a=[1, 2], b=[]}");
+        assertEquals(Map.of("a", Set.of(1L, 2L), "b", Set.of()), map);
+    }
+
+    @Test
+    public void bracketsMayBeOmitted() {
+        assertEquals(List.of(1, 2, 3), deserializer.deserialize(
+                new TypeToken<List<Integer>>() {}, " 1 ,2, 3 "));
+    }
+
+    @Test
+    public void emptyCollections() {
+        assertEquals(List.of(), deserializer.deserialize(
+                new TypeToken<List<Integer>>() {}, "[]"));
+        assertEquals(List.of(), deserializer.deserialize(
+                new TypeToken<List<Integer>>() {}, ""));
+        assertEquals(Map.of(), deserializer.deserialize(
+                new TypeToken<Map<String, Integer>>() {}, "{ }"));
+        assertArrayEquals(new int[0],
+                          deserializer.deserialize(int[].class, "[]"));
+    }
+
+    @Test
+    public void trailingCommaIsAnEmptyElement() {
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializer.deserialize(
+                             new TypeToken<List<Integer>>() {}, "[1, 2,]"));
+        assertEquals(List.of("a", ""), deserializer.deserialize(
+                new TypeToken<List<String>>() {}, "[a,]"));
+    }
+
+    @Test
+    public void unbalancedBrackets() {
+        final var type = new TypeToken<List<List<Integer>>>() {};
+        for (final var serialized : List.of("[[1, 2]", "[1]]", "[[1], 2]]",
+                                            "[(1, 2]")) {
+            assertThrows(DeserializeClassException.class,
+                         () -> deserializer.deserialize(type, serialized));
+        }
+    }
+
+    @Test
+    public void duplicateMapKey() {
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializer.deserialize(
+                             new TypeToken<Map<String, Integer>>() {},
+                             "{a=1, b=2, a=3}"));
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializer.deserialize(
+                             new TypeToken<Map<String, Integer>>() {},
+                             "{a=1, b}"));
+    }
+
+    @Test
+    public void optionals() {
+        final var type = new TypeToken<Optional<Integer>>() {};
+        assertEquals(Optional.empty(),
+                     deserializer.deserialize(type, "Optional.empty"));
+        assertEquals(Optional.of(42),
+                     deserializer.deserialize(type, " Optional[42] "));
+        assertEquals(Optional.of(List.of(1, 2)), deserializer.deserialize(
+                new TypeToken<Optional<List<Integer>>>() {},
+                "Optional[[1, 2]]"));
+        for (final var serialized : List.of("Optional[]", "Optional.", "42",
+                                            "Optional[42")) {
+            assertThrows(DeserializeClassException.class,
+                         () -> deserializer.deserialize(type, serialized));
+        }
+    }
+
+    @Test
+    public void specializedPrimitiveArrays() {
+        assertArrayEquals(new int[]{1, -2, 3},
+                          deserializer.deserialize(int[].class, "[1, -2, 3]"));
+        assertArrayEquals(new long[]{1L << 40, -1},
+                          deserializer.deserialize(long[].class,
+                                                   "[1099511627776, -1]"));
+        assertArrayEquals(new double[]{0.5, -1e10},
+                          deserializer.deserialize(double[].class,
+                                                   "[0.5, -1e10]"),
+                          0);
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializer.deserialize(int[].class, "[1, x]"));
+    }
+
+    @Test
+    public void reflectivePrimitiveArrays() {
+        final var booleans = deserializer.deserialize(boolean[].class,
+                                                      "[true, false]");
+        assertEquals(2, booleans.length);
+        assertEquals(true, booleans[0]);
+        assertEquals(false, booleans[1]);
+
+        final var shorts = deserializer.deserialize(short[].class, "[1, -1]");
+        assertEquals(2, shorts.length);
+        assertEquals((short) -1, shorts[1]);
+
+        assertEquals("ab", new String(deserializer.deserialize(
+                char[].class, "[a, b]")));
+    }
+
+    @Test
+    public void objectAndNestedArrays() {
+        assertArrayEquals(new Object[]{"a", "b"},
+                          deserializer.deserialize(String[].class, "[a, b]"));
+        final var nested = deserializer.deserialize(int[][].class,
+                                                    "[[1, 2], [3]]");
+        assertEquals(2, nested.length);
+        assertArrayEquals(new int[]{1, 2}, nested[0]);
+        assertArrayEquals(new int[]{3}, nested[1]);
+
+        final var lists = deserializer.deserialize(
+                new TypeToken<List<Integer>[]>() {}, "[[1], [2, 3]]");
+        assertEquals(List.of(2, 3), lists[1]);
+    }
+
+    @Test
+    public void arrayClassesHaveHandles() {
+        final var handle = deserializer.forClass(int[].class);
+        assertArrayEquals(new int[]{4, 5}, handle.deserialize("[4, 5]"));
+        assertArrayEquals(new int[]{6}, handle.deserialize("x[6]x", 1, 4));
+        assertSame(int[].class, handle.getTarget().getRawType());
+    }
+
+    @Test
+    public void missingElementDeserializer() {
+        assertThrows(NoDeserializerForClassException.class,
+                     () -> deserializer.deserialize(Thread[].class, "[]"));
+        assertThrows(NoDeserializerForClassException.class,
+                     () -> deserializer.forType(
+                             new TypeToken<List<Thread>>() {}));
+    }
+}
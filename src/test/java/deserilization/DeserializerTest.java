@@ -0,0 +1,360 @@
+package deserilization;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import static deserilization.Deserializer.DeserializeClass;
+import static deserilization.Deserializer.DeserializeClassException;
+import static deserilization.Deserializer.MultipleDeserializersForClassException;
+import static deserilization.Deserializer.NoDeserializerForClassException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeserializerTest {
+
+    private final Deserializer deserializer = new Deserializer();
+
+    /*
+     * A deserializer without a primitive specialization, so the primitive
+     * entry points have to unbox its result.
+     */
+    private record Boxed<T>(Class<T> clazz, T value)
+            implements DeserializeClass<T> {
+        @Override
+        public Class<T> getDeserializedClass() {
+            return clazz;
+        }
+
+        @Override
+        public T deserialize(final String serialized) {
+            if (serialized.equals("fail")) {
+                throw new DeserializeClassException("Failed.");
+            }
+
+            return value;
+        }
+    }
+
+    // Only implements the specialization, the boxing methods fail.
+    private static final class UnboxedInt implements DeserializeClass.OfInt {
+        @Override
+        public Class<Integer> getDeserializedClass() {
+            return Integer.class;
+        }
+
+        @Override
+        public int deserializeInt(final CharSequence serialized,
+                final int start, final int end) {
+            return end - start;
+        }
+
+        @Override
+        public Integer deserialize(final String serialized) {
+            throw new AssertionError("Boxed the result.");
+        }
+
+        @Override
+        public Integer deserialize(final CharSequence serialized,
+                final int start, final int end) {
+            throw new AssertionError("Boxed the result.");
+        }
+    }
+
+    @Test
+    public void primitiveEntryPoints() {
+        assertEquals(-42, deserializer.deserializeInt("-42"));
+        assertEquals(1L << 40, deserializer.deserializeLong("1099511627776"));
+        assertEquals(0.1, deserializer.deserializeDouble("0.1"), 0);
+        assertEquals(-1.5f, deserializer.deserializeFloat("-1.5"), 0);
+        assertTrue(deserializer.deserializeBoolean("true"));
+        assertFalse(deserializer.deserializeBoolean("false"));
+
+        final var line = "x=7;y=-8;z=2.5;b=true";
+        assertEquals(7, deserializer.deserializeInt(line, 2, 3));
+        assertEquals(-8L, deserializer.deserializeLong(line, 6, 8));
+        assertEquals(2.5, deserializer.deserializeDouble(line, 11, 14), 0);
+        assertEquals(2.5f, deserializer.deserializeFloat(line, 11, 14), 0);
+        assertTrue(deserializer.deserializeBoolean(line, 17, 21));
+    }
+
+    @Test
+    public void specializationsAreNotBoxed() {
+        final var unboxed = new Deserializer(
+                DeserializerRegistry.empty().with(new UnboxedInt()));
+        assertEquals(3, unboxed.deserializeInt("abc"));
+        assertEquals(2, unboxed.deserializeInt("abcd", 1, 3));
+    }
+
+    @Test
+    public void boxedDeserializersAreUnboxed() {
+        final var boxed = new Deserializer(DeserializerRegistry.empty().with(
+                new Boxed<>(Integer.class, Integer.MIN_VALUE),
+                new Boxed<>(Long.class, Long.MAX_VALUE),
+                new Boxed<>(Double.class, Double.NaN),
+                new Boxed<>(Float.class, -0.0f),
+                new Boxed<>(Boolean.class, true)));
+        assertEquals(Integer.MIN_VALUE, boxed.deserializeInt("x"));
+        assertEquals(Long.MAX_VALUE, boxed.deserializeLong("x", 0, 1));
+        assertTrue(Double.isNaN(boxed.deserializeDouble("x")));
+        assertEquals(Float.floatToRawIntBits(-0.0f),
+                     Float.floatToRawIntBits(boxed.deserializeFloat("x")));
+        assertTrue(boxed.deserializeBoolean("x"));
+
+        final var exception = assertThrows(DeserializeClassException.class,
+                                           () -> boxed.deserializeInt("fail"));
+        assertEquals("Failed.", exception.getCause().getMessage());
+
+        final var nulls = new Deserializer(DeserializerRegistry.empty()
+                .with(new Boxed<>(Long.class, null)));
+        assertThrows(NullPointerException.class,
+                     () -> nulls.deserializeLong("x"));
+    }
+
+    @Test
+    public void primitiveEntryPointErrors() {
+        final var exception = assertThrows(
+                DeserializeClassException.class,
+                () -> deserializer.deserializeInt("a=12x;", 2, 5));
+        assertEquals("Could not deserialize '12x' into object of class "
+                             + "'class java.lang.Integer'.",
+                     exception.getMessage());
+        assertSame(DeserializeClassException.class,
+                   exception.getCause().getClass());
+
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializer.deserializeLong(""));
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializer.deserializeDouble("1.5.2"));
+        assertFalse(deserializer.deserializeBoolean("yes"));
+        assertThrows(IndexOutOfBoundsException.class,
+                     () -> deserializer.deserializeFloat("1.5", 1, 4));
+        assertThrows(NoDeserializerForClassException.class,
+                     () -> new Deserializer(DeserializerRegistry.empty())
+                             .deserializeInt("1"));
+    }
+
+    @Test
+    public void dispatchIsCachedPerRegistry() {
+        final var registry = DeserializerRegistry.getDefault();
+        final var integers = registry.lookup(Integer.class);
+        assertSame(Integer.class, integers.getDeserializedClass());
+        assertSame(integers, registry.lookup(Integer.class));
+        assertNull(registry.lookup(Thread.class));
+        assertNull(registry.lookup(Thread.class));
+
+        // Each registry dispatches to its own deserializers.
+        final var boxed = new Boxed<>(Thread.class, Thread.currentThread());
+        final var extended = registry.with(boxed);
+        assertSame(boxed, extended.lookup(Thread.class));
+        assertSame(integers, extended.lookup(Integer.class));
+        assertNull(registry.lookup(Thread.class));
+        assertNull(DeserializerRegistry.empty().lookup(Integer.class));
+    }
+
+    @Test
+    public void dispatchFromSeveralThreads()
+            throws InterruptedException, ExecutionException {
+        final var registry = DeserializerRegistry.getDefault()
+                .with(new Boxed<>(Thread.class, null));
+        final Callable<DeserializeClass<Thread>> lookup
+                = () -> registry.lookup(Thread.class);
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            final var lookups = executor.invokeAll(
+                    Collections.nCopies(16, lookup));
+            final var expected = registry.lookup(Thread.class);
+            for (final var result : lookups) {
+                assertSame(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void handlesAreBoundToTheirClass() {
+        final var integers = deserializer.forClass(Integer.class);
+        assertSame(Integer.class, integers.getTarget().getRawType());
+        assertEquals(12, integers.deserialize("12"));
+        assertEquals(3, integers.deserialize("x=3", 2, 3));
+        assertEquals("BoundDeserializer{target=%s}".formatted(
+                integers.getTarget()), integers.toString());
+        assertNotSame(integers, deserializer.forClass(Integer.class));
+
+        final var strings = deserializer.forClass(String.class);
+        assertEquals("12", strings.deserialize("12"));
+
+        final var exception = assertThrows(DeserializeClassException.class,
+                                           () -> integers.deserialize("x"));
+        assertEquals("Could not deserialize 'x' into object of class "
+                             + "'class java.lang.Integer'.",
+                     exception.getMessage());
+        assertThrows(NoDeserializerForClassException.class,
+                     () -> deserializer.forClass(Thread.class));
+        assertThrows(NullPointerException.class,
+                     () -> deserializer.forClass(null));
+    }
+
+    @Test
+    public void defaultRegistryIsShared()
+            throws InterruptedException, ExecutionException {
+        final var registry = DeserializerRegistry.getDefault();
+        assertTrue(registry.getDeserializedClasses().containsAll(List.of(
+                Integer.class, Long.class, Double.class, Float.class,
+                Boolean.class, String.class)));
+        assertThrows(UnsupportedOperationException.class,
+                     () -> registry.getDeserializedClasses()
+                             .add(Thread.class));
+
+        final Callable<DeserializerRegistry> getDefault
+                = DeserializerRegistry::getDefault;
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            for (final var result : executor.invokeAll(
+                    Collections.nCopies(16, getDefault))) {
+                assertSame(registry, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void registriesAreExtendedWithoutChangingThem() {
+        final var base = DeserializerRegistry.empty()
+                .with(new Boxed<>(Integer.class, 1));
+        final var thread = new Boxed<>(Thread.class, Thread.currentThread());
+        final var extended = base.with(List.of(thread));
+        assertEquals(Set.of(Integer.class),
+                     base.getDeserializedClasses());
+        assertEquals(Set.of(Integer.class, Thread.class),
+                     extended.getDeserializedClasses());
+        assertSame(Thread.currentThread(),
+                   new Deserializer(extended).deserialize(Thread.class, "x"));
+        assertThrows(NoDeserializerForClassException.class,
+                     () -> new Deserializer(base)
+                             .deserialize(Thread.class, "x"));
+    }
+
+    @Test
+    public void duplicateRegistrationsAreRejected() {
+        final var base = DeserializerRegistry.empty()
+                .with(new Boxed<>(Integer.class, 1));
+        assertThrows(MultipleDeserializersForClassException.class,
+                     () -> base.with(new Boxed<>(Integer.class, 2)));
+        assertThrows(MultipleDeserializersForClassException.class,
+                     () -> DeserializerRegistry.empty().with(
+                             new Boxed<>(Long.class, 1L),
+                             new Boxed<>(Long.class, 2L)));
+        assertThrows(MultipleDeserializersForClassException.class,
+                     () -> DeserializerRegistry.getDefault()
+                             .with(new UnboxedInt()));
+        assertEquals(1, new Deserializer(base).deserializeInt("x"));
+    }
+
+    /*
+     * Deserializes the value wrapped into other characters, so the range
+     * does not cover the whole sequence.
+     */
+    private <T> T deserializeRange(final Class<T> target, final String value) {
+        final var wrapped = new StringBuilder("1;").append(value).append(";2");
+        return deserializer.deserialize(target, wrapped, 2,
+                                        2 + value.length());
+    }
+
+    private void assertRangeRejected(final Class<?> target,
+            final String value) {
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializeRange(target, value),
+                     () -> "'%s' as %s".formatted(value, target));
+    }
+
+    @Test
+    public void rangesAtTheLimits() {
+        assertEquals(Integer.MIN_VALUE,
+                     deserializeRange(Integer.class, "-2147483648"));
+        assertEquals(Integer.MAX_VALUE,
+                     deserializeRange(Integer.class, "+2147483647"));
+        assertEquals(Long.MIN_VALUE,
+                     deserializeRange(Long.class, "-9223372036854775808"));
+        assertEquals(Short.MIN_VALUE, deserializeRange(Short.class, "-32768"));
+        assertEquals(Short.MAX_VALUE, deserializeRange(Short.class, "32767"));
+        assertEquals(Byte.MIN_VALUE, deserializeRange(Byte.class, "-128"));
+        assertEquals(Byte.MAX_VALUE, deserializeRange(Byte.class, "127"));
+        assertEquals('x', deserializeRange(Character.class, "x"));
+        assertTrue(deserializeRange(Boolean.class, "TrUe"));
+        assertFalse(deserializeRange(Boolean.class, "true;"));
+    }
+
+    @Test
+    public void rangesOutsideTheLimits() {
+        assertRangeRejected(Integer.class, "2147483648");
+        assertRangeRejected(Integer.class, "-2147483649");
+        assertRangeRejected(Long.class, "9223372036854775808");
+        assertRangeRejected(Short.class, "32768");
+        assertRangeRejected(Short.class, "-32769");
+        assertRangeRejected(Short.class, "99999999999");
+        assertRangeRejected(Byte.class, "128");
+        assertRangeRejected(Byte.class, "-129");
+        assertRangeRejected(Character.class, "xy");
+    }
+
+    @Test
+    public void rangesWithOnlyASign() {
+        for (final var target : List.of(Integer.class, Long.class,
+                                        Short.class, Byte.class)) {
+            assertRangeRejected(target, "-");
+            assertRangeRejected(target, "+");
+            assertRangeRejected(target, "--1");
+        }
+    }
+
+    @Test
+    public void emptyRanges() {
+        for (final var target : List.of(Integer.class, Long.class,
+                                        Short.class, Byte.class,
+                                        Character.class)) {
+            assertRangeRejected(target, "");
+        }
+
+        assertFalse(deserializeRange(Boolean.class, ""));
+        assertEquals("", deserializeRange(String.class, ""));
+        assertFalse(deserializer.deserializeBoolean("ab", 1, 1));
+        assertThrows(DeserializeClassException.class,
+                     () -> deserializer.deserializeInt("12", 2, 2));
+    }
+
+    @Test
+    public void rangesOutOfBounds() {
+        final var sequence = CharBuffer.wrap("12345");
+        final var integers = deserializer.forClass(Integer.class);
+        for (final var range : new int[][]{{-1, 2}, {0, 6}, {3, 2}, {6, 6}}) {
+            final var start = range[0];
+            final var end = range[1];
+            assertThrows(IndexOutOfBoundsException.class,
+                         () -> deserializer.deserialize(Integer.class,
+                                                        sequence, start, end));
+            assertThrows(IndexOutOfBoundsException.class,
+                         () -> integers.deserialize(sequence, start, end));
+            assertThrows(IndexOutOfBoundsException.class,
+                         () -> deserializer.deserializeLong(sequence, start,
+                                                            end));
+        }
+
+        assertEquals(5, deserializer.deserialize(Integer.class, sequence,
+                                                 4, 5));
+        assertEquals(12345, integers.deserialize(sequence, 0, 5));
+    }
+}
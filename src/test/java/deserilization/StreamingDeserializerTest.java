@@ -0,0 +1,179 @@
+package deserilization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static deserilization.Deserializer.DeserializeClassException;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StreamingDeserializerTest {
+
+    private final Deserializer deserializer = new Deserializer();
+    private final StreamingDeserializer lines
+            = new StreamingDeserializer(deserializer);
+
+    /*
+     * Returns at most one character per read, so every value spans several
+     * reads.
+     */
+    private static Reader trickle(final String input) {
+        return new Reader() {
+            private int position = 0;
+
+            @Override
+            public int read(final char[] buffer, final int offset,
+                    final int length) {
+                if (position == input.length()) {
+                    return -1;
+                }
+
+                if (length == 0) {
+                    return 0;
+                }
+
+                buffer[offset] = input.charAt(position++);
+                return 1;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static String numbers(final int count) {
+        return IntStream.range(0, count)
+                .map(i -> i * 7919 - count)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    public void newlinesAndCarriageReturns() {
+        assertArrayEquals(new int[]{1, 2, 3},
+                          lines.ints(new StringReader("1\r\n2\n\n3\r\n"))
+                                  .toArray());
+        assertEquals(List.of("a", "b"),
+                     lines.stream(String.class, new StringReader("a\r\n\r\nb"))
+                             .toList());
+    }
+
+    @Test
+    public void otherDelimiters() {
+        final var commas = new StreamingDeserializer(deserializer, ',');
+        assertEquals(List.of("a", "b\r", "c\nd"),
+                     commas.stream(String.class,
+                                   new StringReader(",a,,b\r,c\nd"))
+                             .toList());
+    }
+
+    @Test
+    public void emptyInput() {
+        assertEquals(0, lines.ints(new StringReader("")).count());
+        assertEquals(0, lines.ints(new StringReader("\n\r\n\n")).count());
+        assertEquals(List.of(), lines.stream(Integer.class,
+                                             new StringReader(""))
+                .parallel()
+                .toList());
+    }
+
+    @Test
+    public void trailingDelimiter() {
+        assertArrayEquals(new long[]{1, 2},
+                          lines.longs(new StringReader("1\n2\n")).toArray());
+        assertArrayEquals(new long[]{1, 2},
+                          lines.longs(new StringReader("1\n2")).toArray());
+    }
+
+    @Test
+    public void valuesSpanChunks() {
+        final var input = "123456789\n1\n-22\n333\n" + numbers(1000);
+        final var expected = input.lines().mapToInt(Integer::parseInt)
+                .toArray();
+        for (final var chunkSize : new int[]{1, 2, 3, 5, 64}) {
+            final var small = new StreamingDeserializer(deserializer, '\n',
+                                                        chunkSize);
+            assertArrayEquals(expected,
+                              small.ints(new StringReader(input)).toArray());
+            assertArrayEquals(expected,
+                              small.ints(trickle(input)).toArray());
+        }
+    }
+
+    @Test
+    public void parallelStreamsKeepTheOrder() {
+        final var input = numbers(100_000);
+        final var expected = input.lines().mapToInt(Integer::parseInt)
+                .toArray();
+        final var streaming = new StreamingDeserializer(deserializer, '\n',
+                                                        16 * 1024);
+        assertArrayEquals(expected, streaming.ints(new StringReader(input))
+                .toArray());
+        assertArrayEquals(expected, streaming.ints(new StringReader(input))
+                .parallel()
+                .toArray());
+        assertEquals(IntStream.of(expected).boxed().toList(),
+                     streaming.stream(Integer.class, new StringReader(input))
+                             .parallel()
+                             .toList());
+    }
+
+    @Test
+    public void fillsPrimitiveArrays() {
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE},
+                          lines.longs(new StringReader(
+                                          "-9223372036854775808\n0\n"
+                                                  + "9223372036854775807"))
+                                  .toArray());
+        assertArrayEquals(new double[]{0.5, -1e300, 3},
+                          lines.doubles(new StringReader("0.5\n-1e300\n3"))
+                                  .toArray(),
+                          0);
+    }
+
+    @Test
+    public void invalidValues() {
+        assertThrows(DeserializeClassException.class,
+                     () -> lines.ints(new StringReader("1\nx\n3")).toArray());
+        assertThrows(IllegalArgumentException.class,
+                     () -> new StreamingDeserializer(deserializer, '\n', 0));
+    }
+
+    @Test
+    public void sizeIsEstimatedFromFileChannels(@TempDir final Path directory)
+            throws IOException {
+        final var file = Files.writeString(directory.resolve("values"),
+                                           "1\n2\n3\n");
+        try (final var channel = FileChannel.open(file)) {
+            final var spliterator = lines.ints(channel, StandardCharsets.UTF_8)
+                    .spliterator();
+            assertEquals(6, spliterator.estimateSize());
+            spliterator.forEachRemaining((int value) -> {
+            });
+            assertEquals(0, spliterator.estimateSize());
+        }
+
+        try (final var channel = Channels.newChannel(
+                Files.newInputStream(file))) {
+            final Spliterator<Integer> spliterator = lines.stream(
+                    Integer.class, channel, StandardCharsets.UTF_8)
+                    .spliterator();
+            assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package deserilization.deserializers;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class FastDoubleParserTest {
+
+    private static final int CORPUS_SIZE = 200_000;
+
+    private static final String[] EDGE_CASES = {
+            "0", "-0", "+0.0", "1", "-1", ".5", "5.", "0.1", "0.3", "1E+7",
+            "1e-07", "9007199254740993", "9999999999999999999",
+            "18446744073709551615", "123456789012345678901234567890",
+            "1.7976931348623157e308", "1.7976931348623158e308", "1.8e308",
+            "4.9e-324", "2.4703282292062328e-324", "2.4703282292062327e-324",
+            "2.2250738585072014E-308", "2.2250738585072011e-308", "1e-400",
+            "1e400", "3.4028235e38", "3.4028236e38", "1.4e-45", "7e-46",
+            "7.1e-46", "1.17549435E-38", "NaN", "-Infinity", " 1", "1 ",
+            "0x1p3", "1d", "1f", "", "-", "e5", "1e", "1e+", "1.2.3"
+    };
+
+    private static void assertSameAsJdk(final String serialized) {
+        Double expected;
+        try {
+            expected = Double.parseDouble(serialized);
+        } catch (final NumberFormatException e) {
+            expected = null;
+        }
+
+        if (expected == null) {
+            assertThrows(NumberFormatException.class,
+                         () -> FastDoubleParser.parseDouble(
+                                 serialized, 0, serialized.length()));
+        } else {
+            assertEquals(Double.doubleToRawLongBits(expected),
+                         Double.doubleToRawLongBits(
+                                 FastDoubleParser.parseDouble(
+                                         serialized, 0, serialized.length())),
+                         serialized);
+        }
+
+        Float expectedFloat;
+        try {
+            expectedFloat = Float.parseFloat(serialized);
+        } catch (final NumberFormatException e) {
+            expectedFloat = null;
+        }
+
+        if (expectedFloat == null) {
+            assertThrows(NumberFormatException.class,
+                         () -> FastDoubleParser.parseFloat(
+                                 serialized, 0, serialized.length()));
+        } else {
+            assertEquals(Float.floatToRawIntBits(expectedFloat),
+                         Float.floatToRawIntBits(
+                                 FastDoubleParser.parseFloat(
+                                         serialized, 0, serialized.length())),
+                         serialized);
+        }
+    }
+
+    @Test
+    void test_edge_cases() {
+        for (final var serialized : EDGE_CASES) {
+            assertSameAsJdk(serialized);
+        }
+    }
+
+    @Test
+    void test_random_bit_patterns() {
+        final var random = new Random(42L);
+        for (int i = 0; i < CORPUS_SIZE; ++i) {
+            final var d = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(d)) {
+                assertSameAsJdk(Double.toString(d));
+            }
+
+            final var f = Float.intBitsToFloat(random.nextInt());
+            if (!Float.isNaN(f)) {
+                assertSameAsJdk(Float.toString(f));
+            }
+        }
+    }
+
+    @Test
+    void test_random_decimals() {
+        final var random = new Random(42L);
+        for (int i = 0; i < CORPUS_SIZE; ++i) {
+            final var builder = new StringBuilder();
+            if (random.nextBoolean()) {
+                builder.append('-');
+            }
+
+            final var digits = 1 + random.nextInt(19);
+            for (int j = 0; j < digits; ++j) {
+                builder.append((char) ('0' + random.nextInt(10)));
+            }
+
+            if (random.nextBoolean()) {
+                builder.insert(builder.length() - random.nextInt(digits), '.');
+            }
+
+            builder.append('e').append(random.nextInt(700) - 350);
+            assertSameAsJdk(builder.toString());
+        }
+    }
+
+    @Test
+    void test_halfway_cases() {
+        final var random = new Random(42L);
+        final var two = BigDecimal.valueOf(2);
+        for (int i = 0; i < CORPUS_SIZE; ++i) {
+            final var d = Double.longBitsToDouble(
+                    random.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+            final var halfway = new BigDecimal(d)
+                    .add(new BigDecimal(Math.nextUp(d)))
+                    .divide(two);
+            assertSameAsJdk(halfway.toString());
+        }
+    }
+
+    @Test
+    void test_range() {
+        assertEquals(12.5, FastDoubleParser.parseDouble("x12.5y", 1, 5));
+        assertEquals(-3f, FastDoubleParser.parseFloat("[-3]", 1, 3));
+    }
+}
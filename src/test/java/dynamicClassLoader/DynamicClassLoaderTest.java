@@ -1,11 +1,28 @@
 package dynamicClassLoader;
 
+import dynamicClassLoader.toLoad.TestClass;
+import dynamicClassLoader.toLoad.subpackage.TestClassSubpackage;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarOutputStream;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DynamicClassLoaderTest {
 
@@ -18,4 +35,168 @@ public class DynamicClassLoaderTest {
         final var expected = Set.of("TestClass", "TestClassSubpackage");
         assertEquals(expected, classNames);
     }
+
+    @Test
+    public void parallelScanFindsTheSameClasses() {
+        final var sequential = new LoadClassInPackage()
+                .findClassNames("dynamicClassLoader.toLoad")
+                .collect(Collectors.toSet());
+        final var parallel = new LoadClassInPackage(ForkJoinPool.commonPool())
+                .findClassNames("dynamicClassLoader.toLoad")
+                .collect(Collectors.toSet());
+        assertEquals(sequential, parallel);
+    }
+
+    private static void addClass(final JarOutputStream jar,
+            final Class<?> clazz) throws IOException {
+        final var name = clazz.getName().replace('.', '/') + ".class";
+        jar.putNextEntry(new ZipEntry(name));
+        try (final var in = clazz.getClassLoader().getResourceAsStream(name)) {
+            assert in != null;
+            in.transferTo(jar);
+        }
+        jar.closeEntry();
+    }
+
+    @Test
+    public void findsClassesInJar(@TempDir final Path directory)
+            throws IOException {
+        final var jarFile = directory.resolve("toLoad.jar");
+        try (final var jar = new JarOutputStream(
+                Files.newOutputStream(jarFile))) {
+            addClass(jar, TestClass.class);
+            addClass(jar, TestClassSubpackage.class);
+        }
+
+        final var thread = Thread.currentThread();
+        final var contextClassLoader = thread.getContextClassLoader();
+        try (final var jarClassLoader = new URLClassLoader(
+                new URL[]{jarFile.toUri().toURL()}, null)) {
+            thread.setContextClassLoader(jarClassLoader);
+            final var classNames = new LoadClassInPackage()
+                    .findClassNames("dynamicClassLoader.toLoad")
+                    .collect(Collectors.toSet());
+            assertEquals(Set.of(TestClass.class.getName(),
+                                TestClassSubpackage.class.getName()),
+                         classNames);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Test
+    public void skipsJarsWithoutThePackage(@TempDir final Path directory)
+            throws IOException {
+        final var withPackage = directory.resolve("with.jar");
+        try (final var jar = new JarOutputStream(
+                Files.newOutputStream(withPackage))) {
+            addClass(jar, TestClassSubpackage.class);
+        }
+        final var withoutPackage = directory.resolve("without.jar");
+        try (final var jar = new JarOutputStream(
+                Files.newOutputStream(withoutPackage))) {
+            addClass(jar, LoadClassInPackage.class);
+        }
+
+        try (final var classLoader = new URLClassLoader(
+                new URL[]{withoutPackage.toUri().toURL(),
+                          withPackage.toUri().toURL()}, null)) {
+            final var roots = LoadClassInPackage.findRoots(
+                    classLoader, "dynamicClassLoader.toLoad");
+            assertEquals(1, roots.size());
+            assertTrue(roots.get(0).toString().contains("with.jar!/"));
+        }
+    }
+
+    @Test
+    public void findsClassesInModules() {
+        final var classNames = new LoadClassInPackage()
+                .findClassNames("java.util.concurrent.atomic")
+                .collect(Collectors.toSet());
+        assertTrue(classNames.contains("java.util.concurrent.atomic.LongAdder"));
+    }
+
+    @Test
+    public void readsClassFileHeaders() {
+        final var classLoader = getClass().getClassLoader();
+        final var header = ClassFileHeader.read(
+                classLoader, TestClass.class.getName()).orElseThrow();
+        assertEquals(TestClass.class.getName(), header.name());
+        assertEquals(Object.class.getName(), header.superName());
+        assertTrue(header.isConcreteClass());
+        assertTrue(header.hasPublicZeroArgumentConstructor());
+
+        final var hierarchy = new ClassHierarchy(classLoader);
+        assertTrue(hierarchy.mayBeSubtypeOf("java.util.ArrayList",
+                                            "java.util.Collection"));
+        assertFalse(hierarchy.mayBeSubtypeOf(TestClass.class.getName(),
+                                             "java.lang.Runnable"));
+        assertFalse(ClassFileHeader.read(classLoader, "java.util.List")
+                            .orElseThrow()
+                            .isConcreteClass());
+    }
+
+    /*
+     * A class file of the public class p.A with a single method, whose name
+     * and descriptor refer to the given constant pool entries. Entry 1 is
+     * the string "p/A" and entry 2 is the class p.A.
+     */
+    private static byte[] classFile(final int methodName,
+            final int descriptor) throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        try (final var out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(61);
+            out.writeShort(3);
+            out.writeByte(1);
+            out.writeUTF("p/A");
+            out.writeByte(7);
+            out.writeShort(1);
+            out.writeShort(0x0001);
+            out.writeShort(2);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(1);
+            out.writeShort(0x0001);
+            out.writeShort(methodName);
+            out.writeShort(descriptor);
+            out.writeShort(0);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void rejectsCorruptClassFiles(@TempDir final Path directory)
+            throws IOException {
+        final var valid = ClassFileHeader.read(
+                new ByteArrayInputStream(classFile(1, 1)));
+        assertEquals("p.A", valid.name());
+        assertFalse(valid.hasPublicZeroArgumentConstructor());
+
+        // Out of the constant pool, the unused entry 0, and not a string.
+        for (final var index : new int[]{3, 0xFFFF, 0, 2}) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> ClassFileHeader.read(new ByteArrayInputStream(
+                                 classFile(index, 1))));
+            assertThrows(IllegalArgumentException.class,
+                         () -> ClassFileHeader.read(new ByteArrayInputStream(
+                                 classFile(1, index))));
+        }
+
+        // The plugin loader relies on corrupt class files found by a scan
+        // being reported as malformed.
+        final var file = directory.resolve("p/A.class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, classFile(1, 0xFFFF));
+        try (final var classLoader = new URLClassLoader(
+                new URL[]{directory.toUri().toURL()}, null)) {
+            final var hierarchy = new ClassHierarchy(classLoader);
+            assertThrows(IllegalArgumentException.class,
+                         () -> hierarchy.mayBeSubtypeOf("p.A",
+                                                        "java.lang.Runnable"));
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package plugin;
+
+import dynamicClassLoader.toLoad.TestClass;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PluginCacheTest {
+    private static final String PACKAGE = "dynamicClassLoader.toLoad";
+
+    private static Set<String> loadPlugins(final PluginCache cache) {
+        return new PluginLoader<>(PACKAGE, Object.class, cache)
+                .getConstructors()
+                .stream()
+                .map(Supplier::get)
+                .map(plugin -> plugin.getClass().getSimpleName())
+                .collect(Collectors.toSet());
+    }
+
+    private static String fingerprint(final PluginCache cache) {
+        return cache.fingerprint(PACKAGE, Object.class,
+                                 Thread.currentThread()
+                                         .getContextClassLoader())
+                .orElseThrow();
+    }
+
+    @Test
+    public void scanIsCached(@TempDir final Path directory) {
+        final var cache = new PluginCache(directory);
+        assertEquals(Set.of("TestClass", "TestClassSubpackage"),
+                     loadPlugins(cache));
+
+        final var cached = cache.read(PACKAGE, Object.class,
+                                      fingerprint(cache));
+        assertTrue(cached.isPresent());
+        assertEquals(2, cached.get().size());
+    }
+
+    @Test
+    public void cacheEntryIsUsed(@TempDir final Path directory) {
+        final var cache = new PluginCache(directory);
+        cache.write(PACKAGE, Object.class, fingerprint(cache),
+                    List.of(TestClass.class.getName()));
+        assertEquals(Set.of("TestClass"), loadPlugins(cache));
+    }
+
+    @Test
+    public void outdatedCacheEntryIsReplaced(@TempDir final Path directory) {
+        final var cache = new PluginCache(directory);
+        cache.write(PACKAGE, Object.class, "outdated",
+                    List.of(TestClass.class.getName()));
+        assertEquals(Set.of("TestClass", "TestClassSubpackage"),
+                     loadPlugins(cache));
+        assertTrue(cache.read(PACKAGE, Object.class, fingerprint(cache))
+                           .isPresent());
+    }
+
+    private static String fingerprint(final PluginCache cache,
+            final Path root) throws IOException {
+        try (final var classLoader = new URLClassLoader(
+                new URL[]{root.toUri().toURL()}, null)) {
+            return cache.fingerprint(PACKAGE, Object.class, classLoader)
+                    .orElseThrow();
+        }
+    }
+
+    @Test
+    public void fingerprintTracksDirectories(@TempDir final Path directory)
+            throws IOException {
+        final var cache = new PluginCache(directory.resolve("cache"));
+        final var root = directory.resolve("classes");
+        final var subpackage = root.resolve(
+                PACKAGE.replace('.', '/') + "/subpackage");
+        Files.createDirectories(subpackage);
+        Files.write(subpackage.resolve("A.class"), new byte[]{1});
+        Files.setLastModifiedTime(subpackage, FileTime.fromMillis(1000));
+
+        final var fingerprint = fingerprint(cache, root);
+        assertEquals(fingerprint, fingerprint(cache, root));
+
+        Files.write(subpackage.resolve("B.class"), new byte[]{2});
+        assertNotEquals(fingerprint, fingerprint(cache, root));
+    }
+
+    private static void writeJar(final Path jarFile, final String... entries)
+            throws IOException {
+        try (final var jar = new JarOutputStream(
+                Files.newOutputStream(jarFile))) {
+            for (final var entry : entries) {
+                jar.putNextEntry(new ZipEntry(entry));
+                jar.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    public void fingerprintTracksJarsWithoutDirectories(
+            @TempDir final Path directory) throws IOException {
+        final var cache = new PluginCache(directory.resolve("cache"));
+        final var jar = directory.resolve("plugins.jar");
+        final var prefix = PACKAGE.replace('.', '/') + '/';
+        writeJar(jar, prefix + "A.class");
+        final var fingerprint = fingerprint(cache, jar);
+
+        writeJar(jar, prefix + "A.class", prefix + "B.class");
+        assertNotEquals(fingerprint, fingerprint(cache, jar));
+    }
+}
@@ -0,0 +1,39 @@
+package plugin;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PluginConstructorsTest {
+
+    public static final class Constructible {
+        public Constructible() {
+        }
+    }
+
+    public static final class Failing {
+        public Failing() {
+            throw new IllegalStateException();
+        }
+    }
+
+    @Test
+    public void supplierConstructsNewObjects() throws NoSuchMethodException {
+        final var supplier = PluginConstructors.supplier(
+                Constructible.class.getConstructor());
+        final var first = supplier.get();
+        assertEquals(Constructible.class, first.getClass());
+        assertNotSame(first, supplier.get());
+    }
+
+    @Test
+    public void exceptionsAreNotWrapped() throws NoSuchMethodException {
+        final var constructor = Failing.class.getConstructor();
+        assertThrows(IllegalStateException.class,
+                     PluginConstructors.supplier(constructor)::get);
+        assertThrows(IllegalStateException.class,
+                     PluginConstructors.methodHandle(constructor)::get);
+    }
+}
@@ -0,0 +1,77 @@
+package plugin;
+
+import dynamicClassLoader.toLoad.TestClass;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PluginLoaderTest {
+    private static final String PACKAGE = "dynamicClassLoader.toLoad";
+
+    private static Set<String> loadPlugins() {
+        return new PluginLoader<>(PACKAGE, Object.class)
+                .getConstructors()
+                .stream()
+                .map(Supplier::get)
+                .map(plugin -> plugin.getClass().getSimpleName())
+                .collect(Collectors.toSet());
+    }
+
+    /*
+     * Loads the plugins with a context class loader that also finds the
+     * given index of the package.
+     */
+    private static Set<String> loadPluginsWithIndex(final Path directory,
+            final String index) throws IOException {
+        final var indexFile = directory.resolve(
+                PluginLoader.INDEX_DIRECTORY + PACKAGE);
+        Files.createDirectories(indexFile.getParent());
+        Files.writeString(indexFile, index);
+
+        final var thread = Thread.currentThread();
+        final var contextClassLoader = thread.getContextClassLoader();
+        try (final var indexClassLoader = new URLClassLoader(
+                new URL[]{directory.toUri().toURL()}, contextClassLoader)) {
+            thread.setContextClassLoader(indexClassLoader);
+            return loadPlugins();
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Test
+    public void packageIsScannedWithoutIndex() {
+        assertEquals(Set.of("TestClass", "TestClassSubpackage"),
+                     loadPlugins());
+    }
+
+    @Test
+    public void onlyIndexedClassesAreLoaded(@TempDir final Path directory)
+            throws IOException {
+        final var index = """
+                # Written by the plugin index processor.
+                %s
+                java.lang.Runnable
+                """.formatted(TestClass.class.getName());
+        assertEquals(Set.of("TestClass"),
+                     loadPluginsWithIndex(directory, index));
+    }
+
+    @Test
+    public void missingIndexedClassIsAnError(@TempDir final Path directory) {
+        assertThrows(IllegalStateException.class,
+                     () -> loadPluginsWithIndex(directory,
+                                                PACKAGE + ".Missing\n"));
+    }
+}
@@ -0,0 +1,130 @@
+package plugin.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PluginIndexProcessorTest {
+
+    private record Result(boolean success, List<String> errors,
+                          Path classes) {
+    }
+
+    /*
+     * Compiles the given sources, keyed by their binary class name, with the
+     * processor. The processor has to find plugin.Plugin on the classpath.
+     */
+    private static Result compile(final Path directory,
+            final Map<String, String> sources) throws IOException {
+        final var sourceDirectory = directory.resolve("src");
+        final var classes = Files.createDirectories(
+                directory.resolve("classes"));
+        final List<Path> files = new ArrayList<>();
+        for (final var source : sources.entrySet()) {
+            final var file = sourceDirectory.resolve(
+                    source.getKey().replace('.', '/') + ".java");
+            Files.createDirectories(file.getParent());
+            files.add(Files.writeString(file, source.getValue()));
+        }
+
+        final var compiler = ToolProvider.getSystemJavaCompiler();
+        final var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (final var fileManager = compiler.getStandardFileManager(
+                diagnostics, Locale.ROOT, null)) {
+            final var task = compiler.getTask(
+                    null, fileManager, diagnostics,
+                    List.of("-d", classes.toString(), "-classpath",
+                            System.getProperty("java.class.path")),
+                    null,
+                    fileManager.getJavaFileObjectsFromPaths(files));
+            task.setProcessors(List.of(new PluginIndexProcessor()));
+            final boolean success = task.call();
+            final var errors = diagnostics.getDiagnostics()
+                    .stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                    .map(d -> d.getMessage(Locale.ROOT))
+                    .toList();
+            return new Result(success, errors, classes);
+        }
+    }
+
+    private static void assertRejected(final Path directory,
+            final String source, final String error) throws IOException {
+        final var result = compile(directory, Map.of("p.A", source));
+        assertFalse(result.success());
+        assertEquals(List.of(error), result.errors());
+    }
+
+    @Test
+    public void writesIndexPerPackage(@TempDir final Path directory)
+            throws IOException {
+        final var result = compile(directory, Map.of(
+                "p.B", "package p; @plugin.Plugin public class B {}",
+                "p.A", "package p; @plugin.Plugin public class A {}",
+                "p.NotAPlugin", "package p; public class NotAPlugin {}",
+                "p.q.C", "package p.q; @plugin.Plugin public class C {}"));
+        assertTrue(result.success(), result.errors().toString());
+
+        final var index = result.classes().resolve("META-INF/plugins");
+        assertEquals("p.A\np.B\n", Files.readString(index.resolve("p")));
+        assertEquals("p.q.C\n", Files.readString(index.resolve("p.q")));
+    }
+
+    @Test
+    public void rejectsInterfaces(@TempDir final Path directory)
+            throws IOException {
+        assertRejected(directory,
+                       "package p; @plugin.Plugin public interface A {}",
+                       "Only classes can be plugins.");
+    }
+
+    @Test
+    public void rejectsNestedClasses(@TempDir final Path directory)
+            throws IOException {
+        assertRejected(directory, """
+                               package p;
+                               public class A {
+                                   @plugin.Plugin
+                                   public static class B {}
+                               }""",
+                       "A plugin has to be a top-level class.");
+    }
+
+    @Test
+    public void rejectsAbstractAndNonPublicClasses(
+            @TempDir final Path directory) throws IOException {
+        assertRejected(directory.resolve("abstract"),
+                       "package p; @plugin.Plugin public abstract class A {}",
+                       "A plugin has to be a public, concrete class.");
+        assertRejected(directory.resolve("package-private"),
+                       "package p; @plugin.Plugin class A {}",
+                       "A plugin has to be a public, concrete class.");
+    }
+
+    @Test
+    public void rejectsClassesWithoutZeroArgumentConstructor(
+            @TempDir final Path directory) throws IOException {
+        assertRejected(directory, """
+                               package p;
+                               @plugin.Plugin
+                               public class A {
+                                   public A(int a) {}
+                               }""",
+                       "A plugin needs a public zero argument constructor.");
+    }
+}